@@ -0,0 +1,58 @@
+package games.dominos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation on an empty board and on a half-filled one
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DominosBoardBenchmark {
+
+	private DominosBoard emptyBoard;
+	private DominosBoard midGameBoard;
+
+	@Setup
+	public void setup() {
+		emptyBoard = new DominosBoard();
+
+		// Both players alternately take their first move until a dozen dominos are on the board
+		DominosBoard board = new DominosBoard();
+		DominosRole role = DominosRole.VERTICAL;
+		for (int ply = 0; ply < 12 && !board.isGameOver(); ply++) {
+			ArrayList<DominosMove> moves = board.possibleMoves(role);
+			board = board.play(moves.get(moves.size() / 2), role);
+			role = role == DominosRole.VERTICAL ? DominosRole.HORIZONTAL : DominosRole.VERTICAL;
+		}
+		midGameBoard = board;
+	}
+
+	@Benchmark
+	public void possibleMovesEmpty(Blackhole bh) {
+		bh.consume(emptyBoard.possibleMoves(DominosRole.VERTICAL));
+		bh.consume(emptyBoard.possibleMoves(DominosRole.HORIZONTAL));
+	}
+
+	@Benchmark
+	public void possibleMovesMidGame(Blackhole bh) {
+		bh.consume(midGameBoard.possibleMoves(DominosRole.VERTICAL));
+		bh.consume(midGameBoard.possibleMoves(DominosRole.HORIZONTAL));
+	}
+}
@@ -0,0 +1,46 @@
+package games.escampe;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Positions de milieu de partie des benchmarks, identiques d'une exécution à l'autre : les placements sont
+ * tirés par rang avec PlacementEnumerator.codeAt (le livre d'ouvertures, lu par possibleMoves, n'intervient
+ * pas), puis quelques coups sont joués au hasard, toujours avec la même graine.
+ */
+final class BenchmarkPositions {
+
+    private static final long SEED = 2024L;
+    private static final int RANDOM_PLIES = 8; // Coups joués au hasard après les placements
+
+    private BenchmarkPositions() {
+    }
+
+    /** Tire des positions où la partie n'est pas finie et le joueur au trait a au moins un coup
+     * @param count nombre de positions
+     * @param positions reçoit les positions
+     * @param sides reçoit le joueur au trait de chaque position
+     */
+    static void generate(int count, ArrayList<EscampeBoard> positions, ArrayList<EscampeRole> sides) {
+        Random random = new Random(SEED);
+        while (positions.size() < count) {
+            EscampeBoard board = new EscampeBoard();
+            board.clearBoard();
+            long black = PlacementEnumerator.codeAt(true, random.nextInt(PlacementEnumerator.PLACEMENTS_PER_HALF));
+            board.playVoid(EscampeMove.fromPlacementCode(black), EscampeRole.BLACK);
+            long white = PlacementEnumerator.codeAt(false, random.nextInt(PlacementEnumerator.PLACEMENTS_PER_HALF));
+            board.playVoid(EscampeMove.fromPlacementCode(white), EscampeRole.WHITE);
+
+            EscampeRole side = EscampeRole.BLACK;
+            for (int ply = 0; ply < RANDOM_PLIES && !board.isGameOver(); ply++) {
+                ArrayList<EscampeMove> moves = board.possibleMoves(side);
+                board.playVoid(moves.isEmpty() ? EscampeMove.PASS : moves.get(random.nextInt(moves.size())), side);
+                side = side == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+            }
+            if (!board.isGameOver() && !board.possibleMoves(side).isEmpty()) {
+                positions.add(board);
+                sides.add(side);
+            }
+        }
+    }
+}
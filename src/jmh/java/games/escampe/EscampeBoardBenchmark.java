@@ -0,0 +1,125 @@
+package games.escampe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmarks des chemins chauds du plateau : génération des coups, application d'un coup
+ * (play qui copie le plateau, playVoid et makeMove/unmakeMove qui le modifient), analyse des coups
+ * au format texte et évaluation par les heuristiques.
+ * Chaque appel traite toutes les positions de milieu de partie de BenchmarkPositions, tirées avec une graine fixe.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscampeBoardBenchmark {
+
+    private static final int POSITIONS = 16;
+
+    private EscampeBoard[] positions;
+    private EscampeRole[] sides;
+    /** Un coup légal de chaque position */
+    private EscampeMove[] moves;
+    /** Les coups au format du protocole : déplacements, placements et passe */
+    private String[] moveTexts;
+
+    @Setup
+    public void setup() {
+        ArrayList<EscampeBoard> boards = new ArrayList<>();
+        ArrayList<EscampeRole> roles = new ArrayList<>();
+        BenchmarkPositions.generate(POSITIONS, boards, roles);
+        positions = boards.toArray(new EscampeBoard[0]);
+        sides = roles.toArray(new EscampeRole[0]);
+
+        moves = new EscampeMove[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            ArrayList<EscampeMove> legal = positions[i].possibleMoves(sides[i]);
+            moves[i] = legal.get(legal.size() / 2);
+        }
+        moveTexts = new String[] {"A1-B2", "F6-E4", "C3-C4", "C6/A6/B5/D5/E6/F5", "A1/B1/C2/D1/E1/F2", "E"};
+    }
+
+    // ---- Génération des coups ----
+
+    @Benchmark
+    public void possibleMoves(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) bh.consume(positions[i].possibleMoves(sides[i]));
+    }
+
+    @Benchmark
+    public void countMoves(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) bh.consume(positions[i].countMoves(sides[i]));
+    }
+
+    /** Tous les placements, sans le livre d'ouvertures que possibleMoves consulte */
+    @Benchmark
+    public ArrayList<EscampeMove> placements() {
+        return EscampeBoard.generateAllPlacements(EscampeRole.BLACK, 0L);
+    }
+
+    // ---- Application d'un coup ----
+
+    @Benchmark
+    public void play(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) bh.consume(positions[i].play(moves[i], sides[i]));
+    }
+
+    /** Copie seule : à retrancher de copyAndPlayVoid pour obtenir le coût de playVoid */
+    @Benchmark
+    public void copy(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) bh.consume(positions[i].copy());
+    }
+
+    @Benchmark
+    public void copyAndPlayVoid(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) {
+            EscampeBoard board = positions[i].copy();
+            board.playVoid(moves[i], sides[i]);
+            bh.consume(board);
+        }
+    }
+
+    @Benchmark
+    public void makeUnmakeMove(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) {
+            EscampeBoard board = positions[i];
+            board.makeMove(moves[i], sides[i]);
+            bh.consume(board.hashKey());
+            board.unmakeMove();
+        }
+    }
+
+    // ---- Analyse des coups ----
+
+    @Benchmark
+    public void parseMoves(Blackhole bh) {
+        for (String text : moveTexts) bh.consume(EscampeMove.parse(text));
+    }
+
+    // ---- Évaluation ----
+
+    @Benchmark
+    public void evalWhite(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) bh.consume(EscampeHeuristics.hWhite.eval(positions[i], sides[i]));
+    }
+
+    @Benchmark
+    public void evalBlack(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) bh.consume(EscampeHeuristics.hBlack.eval(positions[i], sides[i]));
+    }
+}
@@ -0,0 +1,74 @@
+package games.escampe;
+
+import iialib.games.algs.algorithms.AlphaBeta;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche AlphaBeta à profondeur fixe sur des positions de milieu de partie,
+ * en version classique (max/min) et negamax, de la profondeur 3 à 6, avec ou sans ordre des coups.
+ * Un algorithme est créé par position pour que chaque appel parte d'une recherche neuve.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscampeSearchBenchmark {
+
+    private static final int POSITIONS = 4;
+
+    @Param({"3", "4", "5", "6"})
+    public int depth;
+
+    @Param({"false", "true"})
+    public boolean negamax;
+
+    @Param({"false", "true"})
+    public boolean ordered;
+
+    @Param({"false", "true"})
+    public boolean staged;
+
+    private EscampeBoard[] positions;
+    private EscampeRole[] sides;
+
+    @Setup
+    public void setup() {
+        ArrayList<EscampeBoard> boards = new ArrayList<>();
+        ArrayList<EscampeRole> roles = new ArrayList<>();
+        BenchmarkPositions.generate(POSITIONS, boards, roles);
+        positions = boards.toArray(new EscampeBoard[0]);
+        sides = roles.toArray(new EscampeRole[0]);
+    }
+
+    @Benchmark
+    public void alphaBeta(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) {
+            EscampeRole side = sides[i];
+            EscampeRole opponent = side == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+            AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> algorithm = new AlphaBeta<>(side, opponent,
+                    side == EscampeRole.WHITE ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack, depth, negamax);
+            if (ordered) {
+                algorithm.setMoveOrderer(new EscampeMoveOrderer());
+            }
+            algorithm.setStagedGeneration(staged);
+            bh.consume(algorithm.bestMove(positions[i], side));
+        }
+    }
+}
@@ -50,6 +50,7 @@ public class DominosGameAlphaBeta extends AbstractGame<DominosMove, DominosRole,
 			System.out.println("\nStatistiques VERTICAL (dernière recherche):");
 			System.out.println("  Noeuds développés: " + ab.getNbNodes());
 			System.out.println("  Feuilles visitées: " + ab.getNbLeaves());
+			System.out.println("  " + ab.getStats());
 		}
 
 		System.out.println("\n=== Test AlphaBeta version Negamax ===\n");
@@ -83,6 +84,7 @@ public class DominosGameAlphaBeta extends AbstractGame<DominosMove, DominosRole,
 			System.out.println("\nStatistiques VERTICAL Negamax (dernière recherche):");
 			System.out.println("  Noeuds développés: " + ab.getNbNodes());
 			System.out.println("  Feuilles visitées: " + ab.getNbLeaves());
+			System.out.println("  " + ab.getStats());
 		}
 
 		System.out.println("\n=== Comparaison MiniMax vs AlphaBeta ===\n");
@@ -116,6 +118,7 @@ public class DominosGameAlphaBeta extends AbstractGame<DominosMove, DominosRole,
 			System.out.println("\nStatistiques VERTICAL MiniMax (dernière recherche):");
 			System.out.println("  Noeuds développés: " + mm.getNbNodes());
 			System.out.println("  Feuilles visitées: " + mm.getNbLeaves());
+			System.out.println("  " + mm.getStats());
 		}
 	}
 
@@ -6,12 +6,15 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Random;
 
-import iialib.games.model.IBoard;
+import iialib.games.model.IHashableBoard;
+import iialib.games.model.IStagedBoard;
+import iialib.games.model.IUndoableBoard;
 import iialib.games.model.Score;
 
-public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,EscampeBoard> {
+public class EscampeBoard implements Partie1, IUndoableBoard<EscampeMove,EscampeRole,EscampeBoard>, IHashableBoard,
+        IStagedBoard<EscampeMove,EscampeRole,EscampeBoard> {
 
     // ------------ Constantes ------------
 
@@ -24,8 +27,41 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
     private static final long LISERE_2 = (1L<<1) | (1L<<2) | (1L<<5) | (1L<<11) | (1L<<12) | (1L<<15) | (1L<<18) | (1L<<21) | (1L<<29) | (1L<<31) | (1L<<32) | (1L<<35);
     private static final long LISERE_3 = (1L<<3) | (1L<<6) | (1L<<8) | (1L<<10) | (1L<<13) | (1L<<17) | (1L<<20) | (1L<<22) | (1L<<25) | (1L<<27) | (1L<<30) | (1L<<34);
 
+    private static final long[] LISERE_MASKS = {0L, LISERE_1, LISERE_2, LISERE_3}; // Masque des cases par type de liseré (index = contrainte)
+
+    private static final long BOARD_MASK = (1L << 36) - 1; // Les 36 cases du plateau
+    private static final long COL_A = 0b000001_000001_000001_000001_000001_000001L; // Colonne A (bit 0 de chaque ligne)
+    private static final long COL_F = COL_A << 5; // Colonne F (bit 5 de chaque ligne)
+    private static final long TOP_ROWS = 0xFFFL; // Lignes 1-2 (12 premières cases)
+    private static final long BOTTOM_ROWS = 0xFFFL << 24; // Lignes 5-6 (12 dernières cases)
+
+    // Pile d'annulation : informations rangées dans un int par coup joué avec makeMove
+    private static final int UNDO_STACK_SIZE = 256; // Profondeur maximale de coups non annulés
+    private static final int UNDO_TURN_BLACK = 1 << 2; // Tour précédent (les bits 0-1 gardent la contrainte précédente)
+    private static final int UNDO_PLAYER_WHITE = 1 << 3; // Couleur du joueur qui a joué le coup
+    private static final int UNDO_MOVED_UNICORN = 1 << 4; // La pièce déplacée est la licorne
+    private static final int UNDO_CAPTURED_UNICORN = 1 << 5; // Une licorne adverse a été prise sur la case d'arrivée
+    private static final int UNDO_CAPTURED_PALADIN = 1 << 6; // Un paladin adverse a été retiré de la case d'arrivée
+    private static final int UNDO_PLACEMENT = 1 << 7; // Coup de placement
+    private static final int UNDO_PASS = 1 << 8; // Passage
+    private static final int UNDO_FROM_SHIFT = 9; // Case de départ (ou licorne placée) sur 6 bits
+    private static final int UNDO_TO_SHIFT = 15; // Case d'arrivée sur 6 bits
+
+    // Clés de Zobrist (tirées une fois avec une graine fixe pour que les clés soient stables d'une exécution à l'autre)
+    private static final int WHITE_PALADIN = 0, BLACK_PALADIN = 1, WHITE_UNICORN = 2, BLACK_UNICORN = 3; // Index des types de pièces
+    private static final long[] ZOBRIST_PIECES = new long[4 * 36]; // Une clé par (type de pièce, case)
+    private static final long[] ZOBRIST_CONSTRAINT = new long[4]; // Une clé par contrainte de liseré (0 = aucune, clé nulle)
+    private static final long ZOBRIST_BLACK_TURN; // Présente dans la clé quand c'est au tour des noirs
+
     private static final String[] COORD_CACHE = new String[36]; // Cache des coordonnées des cases pour éviter de les recalculer
-    private static final long[][][] PATH_CACHE = new long[36][36][]; // Cache des chemins entre chaque paire de cases (null si impossible)
+
+    // Tables d'atteignabilité : pour chaque case, les cases d'arrivée selon l'occupation des cases intermédiaires possibles.
+    // L'occupation est compressée en index par multiplication magique : ((occupation & masque) * magique) >>> décalage
+    private static final long[] REACH_MASKS = new long[36]; // Cases par lesquelles un déplacement depuis la case peut passer
+    private static final long[] REACH_MAGICS = new long[36]; // Multiplicateurs sans collision destructive
+    private static final int[] REACH_SHIFTS = new int[36]; // 64 - (nombre de bits du masque + 1)
+    private static final int[] REACH_OFFSETS = new int[36]; // Début de la table de la case dans REACH_TABLE
+    private static final long[] REACH_TABLE; // Toutes les tables à la suite, dans un seul tableau
 
     // ------------ Variables d'etat ------------
 
@@ -33,6 +69,13 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
     private EscampeRole currentTurn; // 0 = blanc, 1 = noir
     private int nextMoveConstraint; // 0 = aucun, 1 = liseré1, 2 = liseré2, 3 = liseré3
 
+    private long hashKey; // Clé de Zobrist de la position, tenue à jour à chaque coup
+
+    private int[] undoInfo; // Pile d'annulation de makeMove (allouée au premier coup, jamais copiée)
+    private long[] undoPaladins; // Masque des paladins posés, pour annuler un placement
+    private long[] undoKeys; // Clé de Zobrist avant le coup
+    private int undoTop; // Nombre de coups à annuler
+
     // ------------ Initialisation statique ------------
 
     static {
@@ -43,8 +86,34 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         }
     }
 
-    static{
-        precomputePaths();
+
+    static {
+        Random random = new Random(0x5EED_E5CA_4B1EL);
+        for (int i = 0; i < ZOBRIST_PIECES.length; i++) ZOBRIST_PIECES[i] = random.nextLong();
+        for (int i = 1; i < ZOBRIST_CONSTRAINT.length; i++) ZOBRIST_CONSTRAINT[i] = random.nextLong();
+        ZOBRIST_BLACK_TURN = random.nextLong();
+    }
+
+    static {
+        int size = 0;
+        for (int from = 0; from < 36; from++) {
+            long firstStep = neighbours(1L << from);
+            switch (getLisereType(from)) {
+                case 2: REACH_MASKS[from] = firstStep; break;
+                case 3: REACH_MASKS[from] = (firstStep | neighbours(firstStep)) & ~(1L << from); break;
+                default: REACH_MASKS[from] = 0L; // Un seul pas : rien ne peut bloquer
+            }
+            // Un bit d'index de plus que le masque : les magiques se trouvent en quelques milliers d'essais au lieu de millions
+            REACH_SHIFTS[from] = 63 - Long.bitCount(REACH_MASKS[from]);
+            REACH_OFFSETS[from] = size;
+            size += 2 << Long.bitCount(REACH_MASKS[from]);
+        }
+        REACH_TABLE = new long[size];
+
+        Random random = new Random(0x4EAC_4AB1EL); // Graine fixe : mêmes magiques à chaque exécution
+        for (int from = 0; from < 36; from++) {
+            findReachMagic(from, random);
+        }
     }
 
     // ------------ Constructeurs ------------
@@ -57,6 +126,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         this.blackUnicorn = 0L;
         this.currentTurn = EscampeRole.BLACK; // le noir place en premier
         this.nextMoveConstraint = 0;
+        this.hashKey = computeHashKey();
     }
 
     // Constructeur de copie
@@ -67,6 +137,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         this.blackUnicorn = board.blackUnicorn;
         this.currentTurn = board.currentTurn;
         this.nextMoveConstraint = board.nextMoveConstraint;
+        this.hashKey = board.hashKey;
     }
 
     // ------------ Outils de conversion ------------
@@ -145,6 +216,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
             e.printStackTrace();
         }
 
+        hashKey = computeHashKey();
     }
 
     /** Sauvegarde la configuration de l’état courant (plateau et pièces restantes) dans un fichier
@@ -207,9 +279,8 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
     public boolean isValidMove(EscampeMove move, EscampeRole player) {
         if (move == null) return false;
         if (move.isPass()) {
-            // Le joueur peut passer seulement si possibleMoves est vide
-            ArrayList<EscampeMove> moves = possibleMoves(player);
-            return moves.isEmpty();
+            // Le joueur peut passer seulement s'il n'a aucun coup
+            return !hasAnyLegalMove(player);
         }
         if (move.isPlacement()) return isValidPlacementMove(move, player);
         return isValidGameplayMove(move, player);
@@ -221,52 +292,44 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
      * @return vrai si le coup est valide
      */
     private boolean isValidPlacementMove(EscampeMove move, EscampeRole player) {
-        int[] indices = move.getPlacementIndices();
-        if (indices == null || indices.length != 6) return false; 
-
         boolean isWhite = player == EscampeRole.WHITE;
         long mine = isWhite ? (whiteUnicorn | whitePaladins) : (blackUnicorn | blackPaladins); // Mes pièces
         long opponent = isWhite ? (blackUnicorn | blackPaladins) : (whiteUnicorn | whitePaladins); // Pièces adverses
+        return isValidPlacement(move, mine, opponent);
+    }
+
+    /** Vérifie si le coup de placement est valide, d'après les pièces déjà posées
+     * @param move le coup de placement
+     * @param mine les pièces du joueur qui place
+     * @param opponent les pièces adverses (seule la moitié du plateau occupée compte)
+     * @return vrai si le coup est valide
+     */
+    static boolean isValidPlacement(EscampeMove move, long mine, long opponent) {
+        int unicornIndex = move.getUnicornIndex();
+        long paladinsMask = move.getPaladinsMask();
+        long unicornMask = 1L << unicornIndex;
+        if (Long.bitCount(paladinsMask) != 5 || (paladinsMask & unicornMask) != 0) return false; // 6 cases distinctes
 
         if(mine != 0L) return false; // Si j'ai déjà des pièces sur le plateau, je ne peux pas placer d'autres pions.
 
-        int minRow, maxRow;
+        long allowedRows;
 
         if(opponent == 0L){ // Si le plateau est vide, on peut choisir haut ou bas (lignes 1-2 ou 5-6)
-            int firstRow = indices[0] / 6;
+            int firstRow = unicornIndex / 6;
             if(firstRow == 0 || firstRow == 1){ // Choisi le haut
-                minRow = 0;
-                maxRow = 1;
+                allowedRows = TOP_ROWS;
             } else if(firstRow == 4 ||firstRow == 5) { // Choisi le bas
-                minRow = 4;
-                maxRow = 5;
+                allowedRows = BOTTOM_ROWS;
             }
             else {
                 return false; // Interdit
             }
         } else { // L'adversaire a déjà placé ses pions
-            boolean opponentisTop = (opponent & 0xFFFL) != 0; // Vérifie si l'adversaire est en bas (lignes 5-6) (0xFFF est le masque des 12 premières cases)
-            if(opponentisTop){ // Adversaire en haut, moi en bas
-                minRow = 4; maxRow = 5;
-            } else { // Adversaire en bas, moi en haut
-                minRow = 0; maxRow = 1;
-            }
+            boolean opponentisTop = (opponent & TOP_ROWS) != 0; // Vérifie si l'adversaire est en haut (lignes 1-2)
+            allowedRows = opponentisTop ? BOTTOM_ROWS : TOP_ROWS; // Adversaire en haut, moi en bas (et inversement)
         }
 
-        long moveMask = 0L; // Masque des positions où je veux placer mes pièces
-
-        for (int index : indices){ // 6 boucles avec pas de 3 caractères
-            if(index < 0 || index > 35) return false; // Index invalide
-
-            int row = index / 6;
-            if(row < minRow || row > maxRow) return false; // En dehors des lignes autorisées
-
-            long mask = 1L << index;
-            if((moveMask & mask) != 0) return false; // Déjà placé ici
-
-            moveMask |= mask;
-        }
-        return true;
+        return ((paladinsMask | unicornMask) & ~allowedRows) == 0; // Toutes les pièces dans les lignes autorisées
     }
 
     /** Vérifie si le coup de jeu est valide
@@ -296,21 +359,9 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         int lisereType = getLisereType(from);
         if(nextMoveConstraint != 0 && lisereType != nextMoveConstraint) return false; // Contrainte non respectée
 
-        // Vérifier géométriquement s'il existe un chemin valide
-        long[] potentialPaths = PATH_CACHE[from][to];
-        if(potentialPaths == null) return false; // Pas de chemin possible géométriquement
-
-        // Vérifier si un des chemins est libre (sans obstacle)
+        // Vérifier qu'il existe un chemin libre (sans obstacle) de la bonne longueur
         long allPieces = whitePaladins | blackPaladins | whiteUnicorn | blackUnicorn;
-        boolean pathFound = false;
-
-        for(long pathMask : potentialPaths){
-            if((allPieces & pathMask) == 0){ // Chemin libre
-                pathFound = true;
-                break; // On peut s'arrêter dès qu'on en trouve un
-            }
-        }
-        if(!pathFound) return false; // Aucun chemin libre
+        if((reachableSquares(from, allPieces) & (1L << to)) == 0) return false; // Aucun chemin libre
 
         // Vérifier que la case d'arrivée est libre
         long toMask = 1L << to;
@@ -340,50 +391,184 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
 
         // ----------------- Placement initial -----------------
         if(myPieces == 0L){ // Si je n'ai pas encore placé mes pièces
-            // Essayer de charger depuis openings.txt
-            try (BufferedReader br = new BufferedReader(new FileReader(".\\data\\openings.txt"))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    line = line.trim();
-                    if (line.isEmpty() || line.startsWith("%")) continue; // Ignore les lignes vides ou commentaires
-                    EscampeMove move = new EscampeMove(line);
-                    if (isValidMove(move, player)) moves.add(move);
-                }
-            } catch (IOException e) {
-                // Fichier n'existe pas ou erreur - on va générer tous les placements possibles
-            }
+            // Placements du livre d'ouvertures valides ici, sinon tous les placements (listes chargées une fois, sans lecture disque)
+            long opponent = isWhite ? (blackPaladins | blackUnicorn) : (whitePaladins | whiteUnicorn);
+            return PlacementSource.getDefault().placements(player, opponent);
+        }
 
-            // Si aucun placement trouvé dans le fichier, générer tous les placements valides
-            if (moves.isEmpty()) {
-                moves = generateAllPlacements(player);
+        // ----------------- Coups normaux -----------------
+        long movers = movers(player);
+        while (movers != 0) { // Boucle sur mes pièces jouables
+            int from = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+
+            long destinations = destinations(from, isWhite);
+            while (destinations != 0) { // Un coup par case atteignable, directement depuis le bitboard
+                int to = Long.numberOfTrailingZeros(destinations);
+                destinations &= destinations - 1;
+                moves.add(EscampeMove.of(from, to));
             }
-
-            return moves; // Retourne uniquement les coups de placement si plateau vide
         }
 
-        // ----------------- Coups normaux -----------------
-        for (int from = 0; from < 36; from++) { // Boucle sur les 36 cases
-            if ((myPieces & (1L << from)) == 0) continue; // pas ma pièce
+        return moves;
+    }
 
-            int lisere = getLisereType(from);
-            if (nextMoveConstraint != 0 && lisere != nextMoveConstraint) continue; // Pas la bonne contrainte
+    /** Compte les coups possibles sans construire la liste (popcount des cases atteignables)
+     * @param player le joueur qui joue
+     * @return le nombre de coups, égal à possibleMoves(player).size()
+     */
+    public int countMoves(EscampeRole player) {
+        boolean isWhite = (player == EscampeRole.WHITE);
+        long myPieces = isWhite ? (whitePaladins | whiteUnicorn) : (blackPaladins | blackUnicorn);
+        if (myPieces == 0L) return possibleMoves(player).size(); // Placements : liste (rare, hors recherche)
+
+        int count = 0;
+        long movers = movers(player);
+        while (movers != 0) {
+            int from = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+            count += Long.bitCount(destinations(from, isWhite));
+        }
+        return count;
+    }
 
-            for (int to = 0; to < 36; to++) { // Boucle sur les 36 cases de destination
-                if (from == to) continue; // éviter de créer un coup inutile
+    /** Indique si le joueur a au moins un coup (s'arrête à la première pièce qui peut bouger)
+     * @param player le joueur qui joue
+     * @return vrai si possibleMoves(player) n'est pas vide
+     */
+    public boolean hasAnyLegalMove(EscampeRole player) {
+        boolean isWhite = (player == EscampeRole.WHITE);
+        long myPieces = isWhite ? (whitePaladins | whiteUnicorn) : (blackPaladins | blackUnicorn);
+        if (myPieces == 0L) return !possibleMoves(player).isEmpty();
 
-                if (PATH_CACHE[from][to] == null) continue; // Pas de chemin géométrique
+        long movers = movers(player);
+        while (movers != 0) {
+            int from = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+            if (destinations(from, isWhite) != 0) return true;
+        }
+        return false;
+    }
 
-                // Crée le coup sous forme "A1-B2" avec string
-                String moveStr = indexToString(from) + "-" + indexToString(to);
-                EscampeMove move = new EscampeMove(moveStr);
+    /** Calcule les prises de la licorne adverse (les seuls coups qui changent le matériel), directement depuis les
+     * bitboards : un coup par paladin jouable qui atteint la licorne adverse
+     * @param player le joueur qui joue
+     * @return les coups paladin vers licorne adverse (vide pendant les placements)
+     */
+    @Override
+    public ArrayList<EscampeMove> tacticalMoves(EscampeRole player) {
+        ArrayList<EscampeMove> captures = new ArrayList<>(2);
+        boolean isWhite = (player == EscampeRole.WHITE);
+        long opponentUnicorn = isWhite ? blackUnicorn : whiteUnicorn;
+        if (opponentUnicorn == 0L) return captures;
+
+        int target = Long.numberOfTrailingZeros(opponentUnicorn);
+        long attackers = unicornAttackers(isWhite ? whitePaladins : blackPaladins, opponentUnicorn);
+        if (nextMoveConstraint != 0) attackers &= LISERE_MASKS[nextMoveConstraint];
+        while (attackers != 0) {
+            captures.add(EscampeMove.of(Long.numberOfTrailingZeros(attackers), target));
+            attackers &= attackers - 1;
+        }
+        return captures;
+    }
 
-                if (isValidMove(move, player)) moves.add(move);
+    /** Calcule les coups calmes (tous les coups sauf les prises de licorne), directement depuis les bitboards.
+     * Génération par étapes : la recherche ne les demande que si le coup de la table et les prises n'ont pas suffi.
+     * @param player le joueur qui joue
+     * @return les coups sans prise (les placements pendant la phase de placement)
+     */
+    @Override
+    public ArrayList<EscampeMove> quietMoves(EscampeRole player) {
+        boolean isWhite = (player == EscampeRole.WHITE);
+        long myPieces = isWhite ? (whitePaladins | whiteUnicorn) : (blackPaladins | blackUnicorn);
+        if (myPieces == 0L) return possibleMoves(player); // Placements : aucun n'est une prise
+
+        ArrayList<EscampeMove> moves = new ArrayList<>(40);
+        long notUnicorn = ~(isWhite ? blackUnicorn : whiteUnicorn);
+        long movers = movers(player);
+        while (movers != 0) {
+            int from = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+
+            long destinations = destinations(from, isWhite) & notUnicorn;
+            while (destinations != 0) {
+                int to = Long.numberOfTrailingZeros(destinations);
+                destinations &= destinations - 1;
+                moves.add(EscampeMove.of(from, to));
             }
         }
-
         return moves;
     }
 
+    /** Code d'un déplacement pour la table de transposition : son code 12 bits (départ, arrivée)
+     * @param move le coup
+     * @return le code, ou -1 pour un placement ou un passage
+     */
+    @Override
+    public int moveCode(EscampeMove move) {
+        return move.getDisplacementCode();
+    }
+
+    /** Déplacement correspondant à un code de moveCode (sans vérifier qu'il est jouable)
+     * @param code le code 12 bits
+     * @return le coup partagé, ou null si le code n'est pas un déplacement
+     */
+    @Override
+    public EscampeMove moveOfCode(int code) {
+        return code >= 0 && code < 4096 ? EscampeMove.fromCode(code) : null;
+    }
+
+    /** Indique si un paladin adverse atteint la licorne du joueur, quel que soit le liseré imposé au prochain coup
+     * adverse (il dépend du coup que le joueur va jouer) : la position n'est pas calme
+     * @param player le joueur menacé
+     * @return vrai si la licorne du joueur peut être prise au coup suivant
+     */
+    @Override
+    public boolean isThreatened(EscampeRole player) {
+        boolean isWhite = (player == EscampeRole.WHITE);
+        long myUnicorn = isWhite ? whiteUnicorn : blackUnicorn;
+        return myUnicorn != 0L && unicornAttackers(isWhite ? blackPaladins : whitePaladins, myUnicorn) != 0L;
+    }
+
+    /** Paladins qui atteignent une licorne (sans tenir compte du liseré imposé)
+     * @param paladins les paladins attaquants
+     * @param unicorn le bitboard de la licorne visée
+     * @return le bitboard des paladins qui peuvent la prendre
+     */
+    long unicornAttackers(long paladins, long unicorn) {
+        long allPieces = whitePaladins | blackPaladins | whiteUnicorn | blackUnicorn;
+        long attackers = 0L;
+        while (paladins != 0) {
+            int from = Long.numberOfTrailingZeros(paladins);
+            if ((reachableSquares(from, allPieces) & unicorn) != 0) attackers |= 1L << from;
+            paladins &= paladins - 1;
+        }
+        return attackers;
+    }
+
+    /** Pièces du joueur qui peuvent bouger : celles sur le liseré imposé par le dernier coup adverse
+     * @param player le joueur qui joue
+     * @return le bitboard des pièces jouables
+     */
+    long movers(EscampeRole player) {
+        long movers = (player == EscampeRole.WHITE) ? (whitePaladins | whiteUnicorn) : (blackPaladins | blackUnicorn);
+        if (nextMoveConstraint != 0) movers &= LISERE_MASKS[nextMoveConstraint];
+        return movers;
+    }
+
+    /** Cases d'arrivée d'une pièce : vides, ou licorne adverse si la pièce est un paladin
+     * @param from la case de la pièce (0-35)
+     * @param isWhite vrai si la pièce est blanche
+     * @return le bitboard des cases d'arrivée légales
+     */
+    long destinations(int from, boolean isWhite) {
+        long allPieces = whitePaladins | blackPaladins | whiteUnicorn | blackUnicorn;
+        long empty = ~allPieces & BOARD_MASK;
+        long myPaladins = isWhite ? whitePaladins : blackPaladins;
+        long targets = ((myPaladins & (1L << from)) != 0) ? (empty | (isWhite ? blackUnicorn : whiteUnicorn)) : empty;
+        return reachableSquares(from, allPieces) & targets;
+    }
+
     /** Modifie le plateau en jouant le coup move avec la pièce choisie
      * @param move le coup à jouer, sous la forme "C1-D1" ou "C6/A6/B5/D5/E6/F5"
      * @param player le joueur qui joue, représenté par "noir" ou "blanc".
@@ -403,23 +588,26 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
     public void playVoid(EscampeMove move, EscampeRole player) {
         // Si le joueur passe son tour ("E")
         if(move.isPass()){
-            this.nextMoveConstraint = 0; // Mouvement libre
+            this.setConstraint(0); // Mouvement libre
             this.switchTurn();
             return;
         }
 
         // Si placement initial (ex : "C6/A6/B5/D5/E6/F5")
         if (move.isPlacement()) {
-            int[] indices = move.getPlacementIndices();
+            long unicornMask = 1L << move.getUnicornIndex();
+            long paladinsMask = move.getPaladinsMask();
             if (player == EscampeRole.WHITE) {
-                this.whiteUnicorn |= 1L << indices[0]; // Licorne
-                for (int i = 1; i < 6; i++) this.whitePaladins |= 1L << indices[i];
+                this.hashKey ^= squaresKey(WHITE_UNICORN, unicornMask & ~this.whiteUnicorn) ^ squaresKey(WHITE_PALADIN, paladinsMask & ~this.whitePaladins);
+                this.whiteUnicorn |= unicornMask; // Licorne
+                this.whitePaladins |= paladinsMask;
             } else {
-                this.blackUnicorn |= 1L << indices[0]; // Licorne
-                for (int i = 1; i < 6; i++) this.blackPaladins |= 1L << indices[i];
+                this.hashKey ^= squaresKey(BLACK_UNICORN, unicornMask & ~this.blackUnicorn) ^ squaresKey(BLACK_PALADIN, paladinsMask & ~this.blackPaladins);
+                this.blackUnicorn |= unicornMask; // Licorne
+                this.blackPaladins |= paladinsMask;
             }
 
-            this.nextMoveConstraint = 0; // Pas de contrainte après placement
+            this.setConstraint(0); // Pas de contrainte après placement
             this.switchTurn();
             return;
         }
@@ -433,33 +621,131 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
 
         // Capture de licorne (on peut retirer n'importe quelle pièce adverse sur la case d'arrivée car validée dans isValidMove)
         if(isWhite){
+            if ((this.blackUnicorn & toMask) != 0) this.hashKey ^= ZOBRIST_PIECES[BLACK_UNICORN * 36 + to];
+            if ((this.blackPaladins & toMask) != 0) this.hashKey ^= ZOBRIST_PIECES[BLACK_PALADIN * 36 + to];
             this.blackUnicorn &= ~toMask;
             this.blackPaladins &= ~toMask;
         } else {
+            if ((this.whiteUnicorn & toMask) != 0) this.hashKey ^= ZOBRIST_PIECES[WHITE_UNICORN * 36 + to];
+            if ((this.whitePaladins & toMask) != 0) this.hashKey ^= ZOBRIST_PIECES[WHITE_PALADIN * 36 + to];
             this.whiteUnicorn &= ~toMask;
             this.whitePaladins &= ~toMask;
         }
 
         // Déplacement de la pièce
+        int piece;
         if (isWhite) {
             if ((this.whiteUnicorn & fromMask) != 0) { // Déplacer la licorne
                 this.whiteUnicorn ^= (fromMask | toMask); // Utilisation de XOR pour déplacer
+                piece = WHITE_UNICORN;
             } else { // Déplacer un paladin
                 this.whitePaladins ^= (fromMask | toMask);
+                piece = WHITE_PALADIN;
             }
         } else {
             if ((this.blackUnicorn & fromMask) != 0) { // Déplacer la licorne
                 this.blackUnicorn ^= (fromMask | toMask);
+                piece = BLACK_UNICORN;
             } else { // Déplacer un paladin
                 this.blackPaladins ^= (fromMask | toMask);
+                piece = BLACK_PALADIN;
             }
         }
+        this.hashKey ^= ZOBRIST_PIECES[piece * 36 + from] ^ ZOBRIST_PIECES[piece * 36 + to];
 
-        this.nextMoveConstraint = getLisereType(to); // Met à jour la contrainte pour le prochain coup
+        this.setConstraint(getLisereType(to)); // Met à jour la contrainte pour le prochain coup
         //System.out.print("Vous devez jouer un liseré : "+nextMoveConstraint+"\n");
         this.switchTurn();
     }
 
+    /** Joue le coup sur le plateau courant en mémorisant de quoi l'annuler avec unmakeMove.
+     * Utilisé par la recherche pour éviter de copier le plateau à chaque nœud.
+     * @param move le coup à jouer
+     * @param player le joueur qui joue
+     */
+    @Override
+    public void makeMove(EscampeMove move, EscampeRole player) {
+        if (undoInfo == null) { // Allocation unique par plateau de recherche
+            undoInfo = new int[UNDO_STACK_SIZE];
+            undoPaladins = new long[UNDO_STACK_SIZE];
+            undoKeys = new long[UNDO_STACK_SIZE];
+        }
+        if (undoTop == UNDO_STACK_SIZE) throw new IllegalStateException("Pile d'annulation pleine");
+
+        boolean isWhite = (player == EscampeRole.WHITE);
+        int info = nextMoveConstraint | (currentTurn == EscampeRole.BLACK ? UNDO_TURN_BLACK : 0) | (isWhite ? UNDO_PLAYER_WHITE : 0);
+        long paladins = 0L;
+
+        if (move.isPass()) {
+            info |= UNDO_PASS;
+        } else if (move.isPlacement()) {
+            info |= UNDO_PLACEMENT | (move.getUnicornIndex() << UNDO_FROM_SHIFT);
+            paladins = move.getPaladinsMask();
+        } else {
+            int from = move.getFromIndex();
+            int to = move.getToIndex();
+            long toMask = 1L << to;
+            info |= (from << UNDO_FROM_SHIFT) | (to << UNDO_TO_SHIFT);
+            if (((isWhite ? whiteUnicorn : blackUnicorn) & (1L << from)) != 0) info |= UNDO_MOVED_UNICORN;
+            if (((isWhite ? blackUnicorn : whiteUnicorn) & toMask) != 0) info |= UNDO_CAPTURED_UNICORN;
+            else if (((isWhite ? blackPaladins : whitePaladins) & toMask) != 0) info |= UNDO_CAPTURED_PALADIN;
+        }
+
+        undoInfo[undoTop] = info;
+        undoPaladins[undoTop] = paladins;
+        undoKeys[undoTop] = hashKey;
+        undoTop++;
+
+        playVoid(move, player);
+    }
+
+    /** Annule le dernier coup joué avec makeMove
+     */
+    @Override
+    public void unmakeMove() {
+        undoTop--;
+        int info = undoInfo[undoTop];
+        boolean isWhite = (info & UNDO_PLAYER_WHITE) != 0;
+
+        if ((info & UNDO_PLACEMENT) != 0) { // Retirer les pièces posées
+            long unicornMask = 1L << ((info >>> UNDO_FROM_SHIFT) & 63);
+            if (isWhite) {
+                whiteUnicorn &= ~unicornMask;
+                whitePaladins &= ~undoPaladins[undoTop];
+            } else {
+                blackUnicorn &= ~unicornMask;
+                blackPaladins &= ~undoPaladins[undoTop];
+            }
+        } else if ((info & UNDO_PASS) == 0) { // Ramener la pièce et rendre la pièce prise
+            long fromMask = 1L << ((info >>> UNDO_FROM_SHIFT) & 63);
+            long toMask = 1L << ((info >>> UNDO_TO_SHIFT) & 63);
+            boolean movedUnicorn = (info & UNDO_MOVED_UNICORN) != 0;
+
+            if (isWhite) {
+                if (movedUnicorn) whiteUnicorn ^= (fromMask | toMask);
+                else whitePaladins ^= (fromMask | toMask);
+                if ((info & UNDO_CAPTURED_UNICORN) != 0) blackUnicorn |= toMask;
+                if ((info & UNDO_CAPTURED_PALADIN) != 0) blackPaladins |= toMask;
+            } else {
+                if (movedUnicorn) blackUnicorn ^= (fromMask | toMask);
+                else blackPaladins ^= (fromMask | toMask);
+                if ((info & UNDO_CAPTURED_UNICORN) != 0) whiteUnicorn |= toMask;
+                if ((info & UNDO_CAPTURED_PALADIN) != 0) whitePaladins |= toMask;
+            }
+        }
+
+        nextMoveConstraint = info & 3;
+        currentTurn = (info & UNDO_TURN_BLACK) != 0 ? EscampeRole.BLACK : EscampeRole.WHITE;
+        hashKey = undoKeys[undoTop];
+    }
+
+    /** Copie indépendante du plateau (sans historique d'annulation)
+     */
+    @Override
+    public EscampeBoard copy() {
+        return new EscampeBoard(this);
+    }
+
     /** Vrai lorsque le plateau correspond à une fin de partie.
      */
     @Override
@@ -515,85 +801,131 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         return 0; // Si erreur
     }
 
-    /** Change le joueur courant
+    /** Calcule les cases atteignables par une pièce en exactement n pas orthogonaux (n = liseré de la case de départ),
+     * sans repasser par une case et sans traverser de pièce. La case d'arrivée n'est pas filtrée (vide ou occupée) :
+     * c'est à l'appelant d'appliquer les règles de capture. Une seule lecture dans les tables d'atteignabilité.
+     * @param from la case de départ (0-35)
+     * @param allPieces le bitboard de toutes les pièces du plateau
+     * @return le bitboard des cases d'arrivée géométriquement accessibles
      */
-    public void switchTurn() {
-        this.currentTurn = (this.currentTurn == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+    static long reachableSquares(int from, long allPieces) {
+        return REACH_TABLE[REACH_OFFSETS[from]
+                           + (int) (((allPieces & REACH_MASKS[from]) * REACH_MAGICS[from]) >>> REACH_SHIFTS[from])];
     }
 
-    /** Pré-calcul des chemins entre chaque paire de cases pour chaque type de liseré
-     * Stocke les résultats dans PATH_CACHE
+    /** Calcul direct (par propagation) des cases atteignables, utilisé pour remplir les tables d'atteignabilité
+     * @param from la case de départ (0-35)
+     * @param allPieces le bitboard de toutes les pièces du plateau (la case de départ comprise)
+     * @return le bitboard des cases d'arrivée géométriquement accessibles
      */
-    private static void precomputePaths() {
-        for (int from = 0; from < 36; from++) { // Pour chaque case de départ
-            int dist = getLisereType(from); // Récupérer la distance (type de liseré)
-
-            for (int to = 0; to < 36; to++) { // Pour chaque case d'arrivée
-                if (from == to) continue; // Ignorer les mêmes cases
-
-                // Trouver tous les chemins valides géométriquement (sans penser aux obstacles)
-                List<Long> pathsFound = new ArrayList<>();
-
-                findPathsRecursive(from, to, dist, 0L, pathsFound); // Masque initial = 0 (aucune case intermédiaire)
-
-                if (!pathsFound.isEmpty()) {
-                    long[] masks = new long[pathsFound.size()];
-                    for (int i = 0; i < pathsFound.size(); i++) { // Copier dans un tableau
-                        masks[i] = pathsFound.get(i);
-                    }
-                    PATH_CACHE[from][to] = masks; // Stocker dans le cache
+    static long computeReachableSquares(int from, long allPieces) {
+        long fromMask = 1L << from;
+        long empty = ~allPieces & BOARD_MASK;
+        long firstStep = neighbours(fromMask);
+
+        switch (getLisereType(from)) {
+            case 1:
+                return firstStep;
+            case 2:
+                return neighbours(firstStep & empty) & ~fromMask; // La case de départ est occupée, pas de retour possible
+            case 3:
+                long reach = 0L;
+                long freeFirst = firstStep & empty;
+                while (freeFirst != 0) { // Pour chaque premier pas, on interdit de revenir sur cette case au troisième pas
+                    long step = freeFirst & -freeFirst;
+                    freeFirst ^= step;
+                    reach |= neighbours(neighbours(step) & empty) & ~step;
                 }
-            }
+                return reach & ~fromMask;
+            default:
+                return 0L;
         }
     }
 
-    /** Recherche récursive des chemins valides entre deux cases
-     * @param currentCase la case courante
-     * @param target la case cible
-     * @param stepsLeft le nombre de pas restants à effectuer
-     * @param currentPathMask le masque des cases déjà visitées dans le chemin actuel
-     * @param results la liste des masques de chemins valides trouvés
+    /** Décale un bitboard d'un pas dans les 4 directions orthogonales, sans déborder d'une ligne à l'autre
+     * @param bb le bitboard de départ
+     * @return le bitboard des cases voisines
      */
-    private static void findPathsRecursive(int currentCase, int target, int stepsLeft, long currentPathMask, List<Long> results) {
-        if (stepsLeft == 0) {
-            if (currentCase == target) { // Si on est arrivé à la cible
-                results.add(currentPathMask);
-            }
-            return;
-        }
-
-        // Calcul de la distance de Manhattan entre la case courante et la cible
-        int cx = currentCase % 6, cy = currentCase / 6;
-        int tx = target % 6, ty = target / 6;
-        int manhattan = Math.abs(cx - tx) + Math.abs(cy - ty);
+    private static long neighbours(long bb) {
+        return ((bb << 6) | (bb >>> 6) | ((bb & ~COL_F) << 1) | ((bb & ~COL_A) >>> 1)) & BOARD_MASK;
+    }
 
-        if (manhattan > stepsLeft) return; // Trop loin
-        if ((manhattan % 2) != (stepsLeft % 2)) return; // Parité incompatible
+    /** Change le joueur courant
+     */
+    public void switchTurn() {
+        this.currentTurn = (this.currentTurn == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        this.hashKey ^= ZOBRIST_BLACK_TURN;
+    }
 
-        // Exploration des 4 voisins : Haut, Bas, Gauche (-1), Droite (+1)
-        int[] moves = {-6, 6, -1, 1};
+    /** Change la contrainte de liseré en mettant à jour la clé de Zobrist
+     * @param constraint la nouvelle contrainte (0 = aucune, 1-3 = liseré)
+     */
+    private void setConstraint(int constraint) {
+        this.hashKey ^= ZOBRIST_CONSTRAINT[this.nextMoveConstraint] ^ ZOBRIST_CONSTRAINT[constraint];
+        this.nextMoveConstraint = constraint;
+    }
 
-        for (int move : moves) {
-            int next = currentCase + move;
+    /** Calcule la clé de Zobrist complète de la position (utilisé seulement quand le plateau est réinitialisé)
+     * @return la clé de Zobrist
+     */
+    private long computeHashKey() {
+        long key = squaresKey(WHITE_PALADIN, whitePaladins) ^ squaresKey(BLACK_PALADIN, blackPaladins)
+                 ^ squaresKey(WHITE_UNICORN, whiteUnicorn) ^ squaresKey(BLACK_UNICORN, blackUnicorn)
+                 ^ ZOBRIST_CONSTRAINT[nextMoveConstraint];
+        if (currentTurn == EscampeRole.BLACK) key ^= ZOBRIST_BLACK_TURN;
+        return key;
+    }
 
-            if (next < 0 || next > 35) continue; // Vérification des limites du plateau
-            if (Math.abs(move) == 1 && (currentCase / 6 != next / 6)) continue; // Vérification des sauts de ligne horizontaux quand on bouge à gauche/droite
+    /** Combine les clés de Zobrist d'un type de pièce sur toutes les cases d'un masque
+     * @param piece le type de pièce (WHITE_PALADIN, BLACK_PALADIN, WHITE_UNICORN ou BLACK_UNICORN)
+     * @param squares le masque des cases
+     * @return le XOR des clés correspondantes
+     */
+    private static long squaresKey(int piece, long squares) {
+        long key = 0L;
+        while (squares != 0) {
+            key ^= ZOBRIST_PIECES[piece * 36 + Long.numberOfTrailingZeros(squares)];
+            squares &= squares - 1;
+        }
+        return key;
+    }
 
-            // Vérification pour ne pas repasser par une case déjà dans le masque
-            long nextBit = 1L << next;
-            boolean isLastStep = (stepsLeft == 1); // Vérifier si c'est le dernier pas
+    /** Cherche le multiplicateur magique de la case : toutes les occupations du masque doivent tomber sur un index
+     * dont le résultat est le leur (deux occupations peuvent partager un index si elles donnent les mêmes cases)
+     * @param from la case de départ (0-35)
+     * @param random le générateur des candidats
+     */
+    private static void findReachMagic(int from, Random random) {
+        long mask = REACH_MASKS[from];
+        int size = 1 << Long.bitCount(mask);
+        long[] occupancies = new long[size];
+        long[] reach = new long[size];
+        long subset = 0L;
+        for (int i = 0; i < size; i++) { // Énumère tous les sous-ensembles du masque (carry-rippler)
+            occupancies[i] = subset;
+            reach[i] = computeReachableSquares(from, subset | (1L << from));
+            subset = (subset - mask) & mask;
+        }
 
-            if ((currentPathMask & nextBit) == 0) { // Si la case n'est pas déjà dans le chemin
-                if (isLastStep) { // Dernier pas
-                    if (next == target) { // On a atteint la cible
-                        results.add(currentPathMask);
-                    }
+        long[] table = new long[2 * size];
+        int[] filledBy = new int[2 * size]; // Numéro de l'essai qui a rempli l'entrée
+        for (int attempt = 1; ; attempt++) {
+            long magic = random.nextLong() & random.nextLong() & random.nextLong(); // Peu de bits : meilleurs candidats
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> REACH_SHIFTS[from]);
+                if (filledBy[index] != attempt) {
+                    filledBy[index] = attempt;
+                    table[index] = reach[i];
                 } else {
-                    if (next != target) { // Ne pas aller à la cible avant le dernier pas
-                        findPathsRecursive(next, target, stepsLeft - 1, currentPathMask | nextBit, results); // Explorer la suite du chemin
-                    }
+                    collision = table[index] != reach[i];
                 }
             }
+            if (!collision) {
+                REACH_MAGICS[from] = magic;
+                System.arraycopy(table, 0, REACH_TABLE, REACH_OFFSETS[from], table.length);
+                return;
+            }
         }
     }
 
@@ -605,6 +937,26 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         blackUnicorn = 0L;
         currentTurn = EscampeRole.BLACK; // Noir place en premier
         nextMoveConstraint = 0;
+        hashKey = computeHashKey();
+    }
+
+    /** Place directement toutes les pièces (génération des tables de finales), sans historique d'annulation
+     * @param whitePaladins les paladins blancs
+     * @param whiteUnicorn la licorne blanche
+     * @param blackPaladins les paladins noirs
+     * @param blackUnicorn la licorne noire
+     * @param turn le joueur au trait
+     * @param constraint la contrainte de liseré du prochain coup (0-3)
+     */
+    void setPosition(long whitePaladins, long whiteUnicorn, long blackPaladins, long blackUnicorn, EscampeRole turn, int constraint) {
+        this.whitePaladins = whitePaladins;
+        this.whiteUnicorn = whiteUnicorn;
+        this.blackPaladins = blackPaladins;
+        this.blackUnicorn = blackUnicorn;
+        this.currentTurn = turn;
+        this.nextMoveConstraint = constraint;
+        this.hashKey = computeHashKey();
+        this.undoTop = 0;
     }
 
     // ----------------------------Getters-----------------------------
@@ -613,76 +965,62 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
     public long getWhiteUnicorn() { return whiteUnicorn; }
     public long getBlackUnicorn() { return blackUnicorn; }
     public EscampeRole getCurrentTurn() { return this.currentTurn; }
+    public int getNextMoveConstraint() { return this.nextMoveConstraint; }
+
+    /** Impose la contrainte de liseré du prochain coup (elle n'est pas enregistrée dans plateau.txt)
+     * @param constraint 0 = aucune, 1-3 = liseré de la case d'arrivée du dernier coup adverse
+     */
+    public void setNextMoveConstraint(int constraint) {
+        if (constraint < 0 || constraint > 3) throw new IllegalArgumentException("Contrainte de liseré invalide : " + constraint);
+        setConstraint(constraint);
+    }
+
+    /** Clé de Zobrist 64 bits de la position (pièces, joueur au trait et contrainte de liseré), mise à jour en O(1) par coup
+     * @return la clé de la position
+     */
+    @Override
+    public long hashKey() { return this.hashKey; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EscampeBoard)) return false;
+        EscampeBoard other = (EscampeBoard) o;
+        return hashKey == other.hashKey
+            && whitePaladins == other.whitePaladins && blackPaladins == other.blackPaladins
+            && whiteUnicorn == other.whiteUnicorn && blackUnicorn == other.blackUnicorn
+            && currentTurn == other.currentTurn && nextMoveConstraint == other.nextMoveConstraint;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hashKey);
+    }
 
     /**
      * Génère tous les placements possibles pour un joueur.
      * Utilisé quand openings.txt n'existe pas ou est vide.
      * @param player le joueur (NOIR ou BLANC)
+     * @param opponent les pièces adverses déjà posées (0 si aucune)
      * @return liste de tous les placements valides
      */
-    private ArrayList<EscampeMove> generateAllPlacements(EscampeRole player) {
-        ArrayList<EscampeMove> placements = new ArrayList<>();
-
-        // Déterminer les lignes de l'adversaire
-        long opponent = (player == EscampeRole.WHITE)
-                        ? (blackUnicorn | blackPaladins)
-                        : (whiteUnicorn | whitePaladins);
-
-        int[] rows;
-        if (opponent == 0L) { 
+    static ArrayList<EscampeMove> generateAllPlacements(EscampeRole player, long opponent) {
+        boolean topHalf;
+        if (opponent == 0L) {
             // Plateau vide : lignes "classiques"
-            rows = (player == EscampeRole.BLACK) ? new int[]{0,1} : new int[]{4,5};
+            topHalf = (player == EscampeRole.BLACK);
         } else {
             // Plateau non vide : placer sur la ligne en face de l'adversaire
-            boolean opponentIsTop = (opponent & 0xFFF) != 0; // lignes 1-2 occupées
-            rows = opponentIsTop ? new int[]{4,5} : new int[]{0,1};
+            topHalf = (opponent & TOP_ROWS) == 0; // lignes 1-2 libres
         }
 
-        // Générer toutes les combinaisons de 6 positions parmi les 12 cases autorisées
-        for (int unicornRow : rows) {
-            for (int unicornCol = 0; unicornCol < 6; unicornCol++) {
-                int unicornIndex = unicornRow * 6 + unicornCol;
-
-                ArrayList<Integer> availableIndices = new ArrayList<>();
-                for (int row : rows) {
-                    for (int col = 0; col < 6; col++) {
-                        int idx = row * 6 + col;
-                        if (idx != unicornIndex) {
-                            availableIndices.add(idx);
-                        }
-                    }
-                }
-
-                generateCombinations(availableIndices, 5, 0, new ArrayList<>(), placements, unicornIndex);
-            }
+        // Toutes les combinaisons licorne + 5 paladins parmi les 12 cases autorisées
+        ArrayList<EscampeMove> placements = new ArrayList<>(PlacementEnumerator.PLACEMENTS_PER_HALF);
+        PlacementEnumerator enumerator = new PlacementEnumerator(topHalf);
+        while (enumerator.next()) {
+            placements.add(EscampeMove.placement(enumerator.unicornIndex(), enumerator.paladinsMask()));
         }
-
         return placements;
     }
 
-
-    /**
-     * Génère récursivement toutes les combinaisons de k éléments parmi la liste.
-     */
-    private void generateCombinations(ArrayList<Integer> indices, int k, int start,
-                                      ArrayList<Integer> current, ArrayList<EscampeMove> placements,
-                                      int unicornIndex) {
-        if (current.size() == k) {
-            // Créer le placement : Licorne + 5 Paladins
-            StringBuilder placement = new StringBuilder();
-            placement.append(indexToString(unicornIndex)); // Licorne en premier
-            for (int idx : current) {
-                placement.append("/").append(indexToString(idx));
-            }
-            placements.add(new EscampeMove(placement.toString()));
-            return;
-        }
-
-        for (int i = start; i < indices.size(); i++) {
-            current.add(indices.get(i));
-            generateCombinations(indices, k, i + 1, current, placements, unicornIndex);
-            current.remove(current.size() - 1);
-        }
-    }
-
 }
@@ -54,7 +54,7 @@ public class EscampeGame {
         while (true) {
             System.out.print("Entrez votre placement (ex: C6/A6/B5/D5/E6/F5) : ");
             String input = scanner.nextLine();
-            move = new EscampeMove(input);
+            move = EscampeMove.parse(input);
             if (board.isValidMove(move, role)) break;
             System.out.println("Placement invalide, réessayez.");
         }
@@ -114,7 +114,7 @@ public class EscampeGame {
             }
 
             try {
-                move = new EscampeMove(input);
+                move = EscampeMove.parse(input);
             } catch (IllegalArgumentException e) {
                 System.out.println("Syntaxe invalide : " + e.getMessage());
                 continue; // Retourne au début de la boucle
@@ -138,7 +138,7 @@ public class EscampeGame {
             return move;
         }
         System.out.println("IA doit passer son tour !");
-        return new EscampeMove("E"); // Pass si aucun coup
+        return EscampeMove.PASS; // Pass si aucun coup
     }
 
     private void printBoard() {
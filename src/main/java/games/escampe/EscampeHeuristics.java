@@ -13,6 +13,17 @@ public class EscampeHeuristics {
     public static IHeuristic<EscampeBoard, EscampeRole> hBlack =
             (board, role) -> evaluate(board, EscampeRole.BLACK);
 
+    /** Marge de futilité : gain de l'évaluation qu'un coup calme (sans attaque ni restriction de l'adversaire)
+     * dépasse rarement, mesuré sur des parties aléatoires (99e centile : ~700 en un coup, ~1300 en deux)
+     * @param remaining profondeur restant à chercher
+     * @return la marge, 0 au-delà de deux coups (pas d'élagage)
+     */
+    public static int futilityMargin(int remaining) {
+        if (remaining == 1) return 700;
+        if (remaining == 2) return 1300;
+        return 0;
+    }
+
     private static int evaluate(EscampeBoard board, EscampeRole role) {
         boolean isWhite = (role == EscampeRole.WHITE);
         EscampeRole oppRole = isWhite ? EscampeRole.BLACK : EscampeRole.WHITE;
@@ -34,8 +45,8 @@ public class EscampeHeuristics {
         int myUniY = myUniIdx / 6;
 
         // --- 1) MOBILITÉ & RESTRICTION ---
-        int myMoves  = board.possibleMoves(role).size();
-        int oppMoves = board.possibleMoves(oppRole).size();
+        int myMoves  = board.countMoves(role);
+        int oppMoves = board.countMoves(oppRole);
         score += 15 * myMoves - 20 * oppMoves;
         if (oppMoves == 0) score += 2000;
 
@@ -80,29 +91,18 @@ public class EscampeHeuristics {
     private static int calculateThreatWithDistance(long attackers, int targetIdx, long allPieces, boolean isDefensive) {
         int threatScore = 0;
         long temp = attackers;
+        long target = 1L << targetIdx;
 
         while (temp != 0) {
             int attackerIdx = Long.numberOfTrailingZeros(temp);
-            long[] paths = EscampeBoard.PATH_CACHE[attackerIdx][targetIdx];
-
-            if (paths != null) {
-                int minSteps = Integer.MAX_VALUE;
-                for (long pathMask : paths) {
-                    if ((pathMask & allPieces) == 0) {
-                        int steps = Long.bitCount(pathMask); 
-                        if (steps < minSteps) minSteps = steps;
-                    }
-                }
-                if (minSteps != Integer.MAX_VALUE) {
-                    // Score très élevé (1000) pour une capture en 1 coup (minSteps 0, 1 ou 2 selon liseré)
-                    // On utilise une valeur plancher pour que la capture soit toujours prioritaire
-                    int val = 1000 / (minSteps + 1);
-                    threatScore += val;
-                }
+            if ((EscampeBoard.reachableSquares(attackerIdx, allPieces) & target) != 0) {
+                // Score très élevé (1000) pour une capture en 1 pas, puis 500 et 333 en 2 et 3 pas (selon le liseré)
+                // On utilise une valeur plancher pour que la capture soit toujours prioritaire
+                threatScore += 1000 / EscampeBoard.getLisereType(attackerIdx);
             }
             temp &= (temp - 1);
         }
 
         return isDefensive ? (threatScore * 2) : threatScore;
     }
-}
\ No newline at end of file
+}
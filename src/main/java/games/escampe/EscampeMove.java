@@ -8,100 +8,230 @@ import iialib.games.model.IMove;
  * - un déplacement (A1-B2)
  * - un placement de 6 pièces (C6/A6/B5/D5/E6/F5)
  * - un passage ("E")
+ *
+ * Le coup est codé dans un long :
+ * - bits 0-5 : case de départ (ou case de la licorne pour un placement)
+ * - bits 6-11 : case d'arrivée
+ * - bits 12-47 : masque des 5 paladins (placement uniquement)
+ * - bits 62-63 : type de coup
+ * Les 36x36 déplacements et le passage sont pré-alloués : la recherche ne crée aucun objet coup.
+ * La conversion texte ne sert qu'à l'interface avec l'arbitre (ClientJeu / IJoueur).
  */
 public class EscampeMove implements IMove {
 
-    private final String rawMove;
-    private final boolean placement;
-    private final boolean pass;
+    // ------------ Constantes ------------
 
-    public EscampeMove(String move) {
+    private static final long TYPE_DISPLACEMENT = 0L;
+    private static final long TYPE_PLACEMENT = 1L << 62;
+    private static final long TYPE_PASS = 2L << 62;
+    private static final long TYPE_MASK = 3L << 62;
+
+    private static final int SQUARE_BITS = 6;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int PALADINS_SHIFT = 12;
+    private static final long PALADINS_MASK = (1L << 36) - 1;
+
+    /** Table des déplacements pré-alloués, indexée par encode(from, to) */
+    private static final EscampeMove[] DISPLACEMENTS = new EscampeMove[1 << (2 * SQUARE_BITS)];
+
+    /** Le coup "passer son tour" */
+    public static final EscampeMove PASS = new EscampeMove(TYPE_PASS);
+
+    static {
+        for (int from = 0; from < 36; from++) {
+            for (int to = 0; to < 36; to++) {
+                DISPLACEMENTS[encode(from, to)] = new EscampeMove(TYPE_DISPLACEMENT | encode(from, to)); // from == to reste invalide pour le plateau
+            }
+        }
+    }
+
+    // ------------ Attributs ------------
+
+    private final long code;
+
+    private EscampeMove(long code) {
+        this.code = code;
+    }
+
+    // ------------ Fabriques ------------
+
+    /** Code un déplacement sur 12 bits
+     * @param from l'index de la case de départ (0-35)
+     * @param to l'index de la case d'arrivée (0-35)
+     * @return le code du déplacement
+     */
+    public static int encode(int from, int to) {
+        return from | (to << SQUARE_BITS);
+    }
+
+    /** Retourne le déplacement pré-alloué correspondant
+     * @param from l'index de la case de départ (0-35)
+     * @param to l'index de la case d'arrivée (0-35)
+     * @return le coup partagé (jamais d'allocation)
+     */
+    public static EscampeMove of(int from, int to) {
+        return DISPLACEMENTS[encode(from, to)];
+    }
+
+    /** Retourne le déplacement pré-alloué correspondant à un code sur 12 bits
+     * @param displacementCode le code retourné par encode(from, to)
+     * @return le coup partagé
+     */
+    public static EscampeMove fromCode(int displacementCode) {
+        return DISPLACEMENTS[displacementCode];
+    }
+
+    /** Crée un coup de placement
+     * @param unicornIndex la case de la licorne (0-35)
+     * @param paladinsMask le masque (36 bits) des cases des 5 paladins
+     * @return le coup de placement
+     */
+    public static EscampeMove placement(int unicornIndex, long paladinsMask) {
+        return new EscampeMove(placementCode(unicornIndex, paladinsMask));
+    }
+
+    /** Code d'un placement, sans créer le coup (voir PlacementEnumerator)
+     * @param unicornIndex la case de la licorne (0-35)
+     * @param paladinsMask le masque (36 bits) des cases des 5 paladins
+     * @return le code du placement, tel que retourné par getCode()
+     */
+    public static long placementCode(int unicornIndex, long paladinsMask) {
+        return TYPE_PLACEMENT | ((paladinsMask & PALADINS_MASK) << PALADINS_SHIFT) | unicornIndex;
+    }
+
+    /** Crée le coup de placement correspondant à un code
+     * @param code un code retourné par placementCode
+     * @return le coup de placement
+     * @throws IllegalArgumentException si le code n'est pas celui d'un placement
+     */
+    public static EscampeMove fromPlacementCode(long code) {
+        if ((code & TYPE_MASK) != TYPE_PLACEMENT) {
+            throw new IllegalArgumentException("Code de placement invalide : " + Long.toHexString(code));
+        }
+        return new EscampeMove(code);
+    }
+
+    /** Analyse un coup au format texte du protocole
+     * @param move "A1-B2", "C6/A6/B5/D5/E6/F5" ou "E"
+     * @return le coup correspondant
+     * @throws IllegalArgumentException si la syntaxe est invalide
+     */
+    public static EscampeMove parse(String move) {
         if (move == null || move.trim().isEmpty()) {
             throw new IllegalArgumentException("Coup vide");
         }
 
-        this.rawMove = move.trim();
-        this.pass = rawMove.equalsIgnoreCase("E");
+        String rawMove = move.trim();
+        if (rawMove.equalsIgnoreCase("E")) return PASS;
 
         // Détecte si c'est un placement (6 positions séparées par '/')
         String[] parts = rawMove.split("/");
-        this.placement = !pass && parts.length == 6;
-
-        // Vérifie la syntaxe du coup
-        if (!pass && !placement) {
-            // Coup normal de type "A1-B2"
-            String cleanMove = rawMove.replaceAll("\\s", ""); // Supprime les espaces éventuels
-            if (cleanMove.length() != 5 || cleanMove.charAt(2) != '-') {
-                throw new IllegalArgumentException("Coup de déplacement invalide : " + rawMove);
-            }
-            if (!isValidCell(cleanMove.substring(0, 2)) || !isValidCell(cleanMove.substring(3, 5))) {
-                throw new IllegalArgumentException("Coup de déplacement contient des cases invalides : " + rawMove);
-            }
-        } else if (placement) {
+        if (parts.length == 6) {
             // Placement de 6 pièces "C6/A6/B5/D5/E6/F5"
-            if (parts.length != 6) {
-                throw new IllegalArgumentException("Placement doit contenir 6 positions : " + rawMove);
-            }
             for (String cell : parts) {
                 if (!isValidCell(cell.trim())) {
                     throw new IllegalArgumentException("Placement contient une case invalide : " + cell);
                 }
             }
+            long paladins = 0L; // Une case en double donne moins de 5 bits : le placement sera refusé par le plateau
+            for (int i = 1; i < 6; i++) paladins |= 1L << cellToIndex(parts[i].trim());
+            return placement(cellToIndex(parts[0].trim()), paladins);
+        }
+
+        // Coup normal de type "A1-B2"
+        String cleanMove = rawMove.replaceAll("\\s", ""); // Supprime les espaces éventuels
+        if (cleanMove.length() != 5 || cleanMove.charAt(2) != '-') {
+            throw new IllegalArgumentException("Coup de déplacement invalide : " + rawMove);
+        }
+        if (!isValidCell(cleanMove.substring(0, 2)) || !isValidCell(cleanMove.substring(3, 5))) {
+            throw new IllegalArgumentException("Coup de déplacement contient des cases invalides : " + rawMove);
         }
+        return of(cellToIndex(cleanMove.substring(0, 2)), cellToIndex(cleanMove.substring(3, 5)));
     }
 
+    // ------------ Accesseurs ------------
+
     public boolean isPlacement() {
-        return placement;
+        return (code & TYPE_MASK) == TYPE_PLACEMENT;
     }
 
     public boolean isPass() {
-        return pass;
+        return (code & TYPE_MASK) == TYPE_PASS;
     }
 
     public int getFromIndex() {
-        if (placement || pass) return -1;
-        String cleanMove = rawMove.replaceAll("\\s", "");
-        return stringToIndex(cleanMove.substring(0, 2));
+        if ((code & TYPE_MASK) != TYPE_DISPLACEMENT) return -1;
+        return (int) code & SQUARE_MASK;
     }
 
     public int getToIndex() {
-        if (placement || pass) return -1;
-        String cleanMove = rawMove.replaceAll("\\s", "");
-        return stringToIndex(cleanMove.substring(3, 5));
+        if ((code & TYPE_MASK) != TYPE_DISPLACEMENT) return -1;
+        return (int) (code >>> SQUARE_BITS) & SQUARE_MASK;
     }
 
-    public int[] getPlacementIndices() {
-        if (!placement) return null;
-        String[] cells = rawMove.split("/");
-        int[] indices = new int[6];
-        for (int i = 0; i < 6; i++) {
-            indices[i] = stringToIndex(cells[i].trim());
-        }
-        return indices;
+    /** @return le code 12 bits (from, to) d'un déplacement, -1 sinon */
+    public int getDisplacementCode() {
+        if ((code & TYPE_MASK) != TYPE_DISPLACEMENT) return -1;
+        return (int) code & ((1 << (2 * SQUARE_BITS)) - 1);
+    }
+
+    /** @return la case de la licorne d'un placement, -1 sinon */
+    public int getUnicornIndex() {
+        if (!isPlacement()) return -1;
+        return (int) code & SQUARE_MASK;
     }
 
-    public String getRawMove() {
-        return rawMove;
+    /** @return le masque des 5 paladins d'un placement, 0 sinon */
+    public long getPaladinsMask() {
+        if (!isPlacement()) return 0L;
+        return (code >>> PALADINS_SHIFT) & PALADINS_MASK;
     }
 
+    /** @return le code complet du coup */
+    public long getCode() {
+        return code;
+    }
+
+    // ------------ Conversion texte ------------
+
     @Override
     public String toString() {
-        return rawMove;
+        if (isPass()) return "E";
+        if (isPlacement()) {
+            StringBuilder sb = new StringBuilder(17);
+            sb.append(EscampeBoard.indexToString(getUnicornIndex())); // Licorne en premier
+            long paladins = getPaladinsMask();
+            while (paladins != 0) {
+                sb.append('/').append(EscampeBoard.indexToString(Long.numberOfTrailingZeros(paladins)));
+                paladins &= paladins - 1;
+            }
+            return sb.toString();
+        }
+        return EscampeBoard.indexToString(getFromIndex()) + "-" + EscampeBoard.indexToString(getToIndex());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EscampeMove)) return false;
+        return code == ((EscampeMove) o).code;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(code);
     }
 
     // --------------------- Méthodes internes ---------------------
 
-    private boolean isValidCell(String cell) {
+    private static boolean isValidCell(String cell) {
         if (cell.length() != 2) return false;
         char col = cell.charAt(0);
         char row = cell.charAt(1);
         return (col >= 'A' && col <= 'F') && (row >= '1' && row <= '6');
     }
 
-    private int stringToIndex(String cell) {
-        if (cell.length() != 2) {
-            throw new IllegalArgumentException("Case invalide pour conversion en index : " + cell);
-        }
+    private static int cellToIndex(String cell) {
         char col = cell.charAt(0);
         char row = cell.charAt(1);
         return (row - '1') * 6 + (col - 'A');
@@ -0,0 +1,146 @@
+package games.escampe;
+
+import iialib.games.algs.IMoveOrderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Ordre des coups pour la recherche AlphaBeta sur Escampe.
+ * Les coups sont notés dans un tableau d'entiers, par ordre de priorité :
+ * - la prise de la licorne adverse (fin de partie)
+ * - le meilleur coup de la table de transposition (ou de l'itération précédente)
+ * - les deux coups "killer" de la profondeur (coups calmes qui ont déjà provoqué une coupure à cette profondeur)
+ * - le contre-coup : dernier coup qui a réfuté un coup adverse arrivé sur le même liseré
+ * - les autres coups selon la table d'historique (départ, arrivée), alimentée par les coupures
+ */
+public class EscampeMoveOrderer implements IMoveOrderer<EscampeMove, EscampeRole, EscampeBoard> {
+
+    // Scores des catégories (l'historique reste en dessous de COUNTER_SCORE)
+    private static final int CAPTURE_SCORE = 1 << 30;
+    private static final int HASH_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28; // Second killer : KILLER_SCORE - 1
+    private static final int COUNTER_SCORE = 1 << 27;
+    private static final int HISTORY_MAX = COUNTER_SCORE - 1;
+
+    private static final int MAX_PLY = 64;
+    private static final int NONE = -1; // Pas de coup enregistré
+
+    // Tables indexées par couleur (0 = blanc, 1 = noir), les coups sont rangés par leur code 12 bits (départ, arrivée)
+    private final int[] killers; // [couleur][profondeur][2]
+    private final int[] counterMoves; // [couleur][liseré d'arrivée du coup adverse 0-3]
+    private final int[] history; // [couleur][code du coup]
+
+    public EscampeMoveOrderer() {
+        killers = new int[2 * MAX_PLY * 2];
+        counterMoves = new int[2 * 4];
+        history = new int[2 * 4096];
+        Arrays.fill(killers, NONE);
+        Arrays.fill(counterMoves, NONE);
+    }
+
+    // Copie pour un autre thread (recherche parallèle)
+    private EscampeMoveOrderer(EscampeMoveOrderer other) {
+        killers = other.killers.clone();
+        counterMoves = other.counterMoves.clone();
+        history = other.history.clone();
+    }
+
+    @Override
+    public void newSearch() {
+        // Les killers dépendent des profondeurs de la recherche précédente : on les oublie, l'historique est vieilli
+        Arrays.fill(killers, NONE);
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    @Override
+    public void scoreMoves(EscampeBoard board, EscampeRole playerRole, ArrayList<EscampeMove> moves, int ply,
+                           EscampeMove previous, int hashIndex, int[] scores) {
+        int color = color(playerRole);
+        long opponentUnicorn = playerRole == EscampeRole.WHITE ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+        int killerBase = killerIndex(color, ply);
+        int killer1 = ply < MAX_PLY ? killers[killerBase] : NONE;
+        int killer2 = ply < MAX_PLY ? killers[killerBase + 1] : NONE;
+        int counter = counterMoves[counterIndex(color, previous)];
+
+        for (int i = 0; i < moves.size(); i++) {
+            int code = moves.get(i).getDisplacementCode();
+            int score;
+            if (code < 0) {
+                score = 0; // Placement ou passage : ordre de génération
+            } else if ((opponentUnicorn & (1L << moves.get(i).getToIndex())) != 0) {
+                score = CAPTURE_SCORE;
+            } else if (code == killer1) {
+                score = KILLER_SCORE;
+            } else if (code == killer2) {
+                score = KILLER_SCORE - 1;
+            } else if (code == counter) {
+                score = COUNTER_SCORE;
+            } else {
+                score = history[color * 4096 + code];
+            }
+            scores[i] = score;
+        }
+        if (hashIndex >= 0 && scores[hashIndex] < CAPTURE_SCORE) {
+            scores[hashIndex] = HASH_SCORE;
+        }
+    }
+
+    @Override
+    public void cutoff(EscampeBoard board, EscampeRole playerRole, EscampeMove move, int ply, EscampeMove previous, int remaining) {
+        int code = move.getDisplacementCode();
+        if (code < 0) return;
+        long opponentUnicorn = playerRole == EscampeRole.WHITE ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+        if ((opponentUnicorn & (1L << move.getToIndex())) != 0) return; // Les prises sont déjà cherchées en premier
+
+        int color = color(playerRole);
+
+        // Killers : le nouveau coup devient le premier, l'ancien premier passe second
+        if (ply < MAX_PLY) {
+            int killerBase = killerIndex(color, ply);
+            if (killers[killerBase] != code) {
+                killers[killerBase + 1] = killers[killerBase];
+                killers[killerBase] = code;
+            }
+        }
+
+        counterMoves[counterIndex(color, previous)] = code;
+
+        // Historique : bonus en profondeur restante au carré, toute la table est divisée par 2 si elle déborde
+        int index = color * 4096 + code;
+        history[index] += remaining * remaining;
+        if (history[index] > HISTORY_MAX) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    @Override
+    public EscampeMove killer(EscampeRole playerRole, int ply, int slot) {
+        if (ply >= MAX_PLY) return null;
+        int code = killers[killerIndex(color(playerRole), ply) + slot];
+        return code == NONE ? null : EscampeMove.fromCode(code);
+    }
+
+    @Override
+    public EscampeMoveOrderer fork() {
+        return new EscampeMoveOrderer(this);
+    }
+
+    private static int color(EscampeRole role) {
+        return role == EscampeRole.WHITE ? 0 : 1;
+    }
+
+    private static int killerIndex(int color, int ply) {
+        return (color * MAX_PLY + ply) * 2;
+    }
+
+    // Le contre-coup dépend du liseré de la case d'arrivée du coup adverse (qui impose les pièces jouables)
+    private static int counterIndex(int color, EscampeMove previous) {
+        int to = previous == null ? -1 : previous.getToIndex();
+        return color * 4 + (to < 0 ? 0 : EscampeBoard.getLisereType(to));
+    }
+}
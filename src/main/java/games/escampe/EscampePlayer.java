@@ -1,27 +1,66 @@
 package games.escampe;
 
 import iialib.games.algs.AIPlayer;
-import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.GameClock;
+import iialib.games.algs.IHeuristic;
 import iialib.games.algs.algorithms.AlphaBeta;
+import iialib.games.log.Log;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EscampePlayer implements IJoueur{
 
     public static final String PLATEAU_FILE = ".\\data\\plateau.txt";
     private static final String OPENINGS_FILE = ".\\data\\openings.txt";
+
+    // Gestion du temps : temps total de réflexion pour la partie (modifiable avec -Descampe.clock=<ms>)
+    private static final long GAME_CLOCK_MS = Long.getLong("escampe.clock", 5 * 60 * 1000L);
+    private static final int EXPECTED_MOVES = 40; // Nombre de coups prévu pour une partie
+    private static final int MIN_MOVES_LEFT = 10; // Le temps restant est toujours réparti sur au moins 10 coups
+    private static final long SAFETY_MS = 200; // Marge pour les échanges avec l'arbitre et la lecture du plateau
+    private static final int MAX_SEARCH_DEPTH = 32; // Profondeur maximale de l'approfondissement itératif
+    private static final int TT_SIZE_MB = 64; // Taille de la table de transposition
+    private static final int ASPIRATION_WINDOW = 200; // Demi-largeur de la fenêtre autour du score de l'itération précédente
+    private static final int SOLVER_MAX_PLIES = 9; // Longueur maximale des prises forcées cherchées avant la recherche
+    private static final int SOLVER_TIME_SHARE = 10; // Le solveur dispose d'un dixième du temps du coup
+    private static final int SOLVER_TT_SIZE_MB = 16; // Taille de la table du solveur
+    private static final boolean PONDER = Boolean.parseBoolean(System.getProperty("escampe.ponder", "true")); // Réflexion pendant le temps adverse
     private EscampeBoard board;
     private int myColour;
     private EscampeRole myRole;
     private AIPlayer<EscampeMove, EscampeRole, EscampeBoard> aiPlayer;
+    private AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> search; // Recherche itérative bornée par le temps
+    private GameClock clock;
+    private EscampeMoveOrderer orderer; // Killers, historique et contre-coups, conservés d'un coup à l'autre
+    private IHeuristic<EscampeBoard, EscampeRole> heuristic;
+    private EscampeSolver solver; // Prises de licorne forcées, jouées sans recherche
+
+    // Réflexion pendant le temps de l'adversaire (pondering)
+    private final ExecutorService ponderThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "escampe-ponder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<EscampeMove> ponderResult; // Résultat de la recherche en cours (null si pas de réflexion)
+    private AtomicBoolean ponderStop; // Signal d'arrêt de la recherche en cours
+    private AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> ponderSearch;
+    private EscampeMove ponderMove; // Réponse adverse attendue (null : toutes les réponses sont cherchées)
+    private boolean ponderHit; // L'adversaire a joué la réponse attendue
 
     // Stockage des ouvertures pré-calculées
     private String bestBlackOpening = null; // Meilleure ouverture pour les Noirs (premier joueur)
-    private Map<String, String> whiteOpenings = new HashMap<>(); // Réponses Blanches selon placement Noir
+    private Map<Long, String> whiteOpenings = new HashMap<>(); // Réponses Blanches selon la clé de Zobrist du placement Noir
 
     // Constructeur
     public EscampePlayer() {
@@ -48,13 +87,17 @@ public class EscampePlayer implements IJoueur{
                     bestBlackOpening = parts[1];
                 } else if (parts[0].equals("WHITE") && parts.length >= 3) {
                     // Format: WHITE:placementNoir:réponseBlanche
-                    whiteOpenings.put(parts[1], parts[2]);
+                    try {
+                        whiteOpenings.put(blackPlacementKey(EscampeMove.parse(parts[1])), parts[2]);
+                    } catch (IllegalArgumentException e) {
+                        Log.warn("Ouverture ignorée: " + line);
+                    }
                 }
             }
-            System.out.println("Ouvertures chargées: " + (bestBlackOpening != null ? "1 Noir" : "0 Noir")
-                             + ", " + whiteOpenings.size() + " Blancs");
+            Log.info("Ouvertures chargées: " + (bestBlackOpening != null ? "1 Noir" : "0 Noir")
+                     + ", " + whiteOpenings.size() + " Blancs");
         } catch (IOException e) {
-            System.err.println("Impossible de charger les ouvertures: " + e.getMessage());
+            Log.warn("Impossible de charger les ouvertures: " + e.getMessage());
         }
     }
 
@@ -70,6 +113,8 @@ public class EscampePlayer implements IJoueur{
             myRole = EscampeRole.BLACK;
         }
 
+        stopPondering(); // Une réflexion de la partie précédente ne sert plus
+
         // ---- Nettoyer plateau avant de commencer ----
         board.clearBoard(); // vide les bitboards
         board.clearPlateauFile(PLATEAU_FILE); // vide plateau.txt
@@ -78,15 +123,27 @@ public class EscampePlayer implements IJoueur{
         EscampeRole opponentRole = (myRole == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
 
         // Choisir l'heuristique appropriée selon ma couleur
-        GameAlgorithm<EscampeMove, EscampeRole, EscampeBoard> algorithm;
-        if (myRole == EscampeRole.WHITE) {
-            algorithm = new AlphaBeta<>(myRole, opponentRole, EscampeHeuristics.hWhite, 4);
-        } else {
-            algorithm = new AlphaBeta<>(myRole, opponentRole, EscampeHeuristics.hBlack, 4);
-        }
+        heuristic = (myRole == EscampeRole.WHITE) ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack;
+        search = new AlphaBeta<>(myRole, opponentRole, heuristic, MAX_SEARCH_DEPTH, true); // Negamax
+        search.setPrincipalVariationSearch(true);
+        search.setAspirationWindow(ASPIRATION_WINDOW);
+        search.setTranspositionTable(TT_SIZE_MB);
+        search.setQuiescence(true); // Les prises de licorne sont cherchées au-delà de l'horizon
+        orderer = new EscampeMoveOrderer();
+        search.setMoveOrderer(orderer);
+        search.setStagedGeneration(true); // Coups calmes générés seulement si le coup de la table et les prises ne coupent pas
+        search.setSelectiveSearch(new EscampeSelectivity());
+        search.setLateMoveReductions(true); // Coups calmes tardifs cherchés un demi-coup moins profond
+        search.setFutilityPruning(true);
+        search.setExtensions(false); // Les prolongations doublent l'arbre sans gain mesuré : désactivées
+
+        solver = new EscampeSolver(SOLVER_TT_SIZE_MB);
+
+        // Le temps de chaque coup est tiré de l'horloge de la partie
+        clock = new GameClock(GAME_CLOCK_MS, EXPECTED_MOVES, MIN_MOVES_LEFT, SAFETY_MS);
 
         // Initialiser le joueur IA avec l'algorithme choisi
-        aiPlayer = new AIPlayer<>(myRole, algorithm);
+        aiPlayer = new AIPlayer<>(myRole, search);
 
         // Charger l'état actuel du plateau depuis le fichier
         board.setFromFile(PLATEAU_FILE);
@@ -101,6 +158,19 @@ public class EscampePlayer implements IJoueur{
     // Choisir le meilleur mouvement à jouer
     @Override
     public String choixMouvement() {
+        clock.startMove();
+        try {
+            return chooseMove();
+        } finally {
+            clock.endMove(); // Le temps de réflexion est décompté de l'horloge de la partie
+        }
+    }
+
+    private String chooseMove() {
+        // Un seul budget pour tout le coup : solveur, fin de la réflexion anticipée et recherche se le partagent
+        long budget = clock.moveBudget();
+        long deadline = System.currentTimeMillis() + budget;
+
         // Recharger le plateau depuis le fichier pour avoir l'état le plus récent
         board.setFromFile(PLATEAU_FILE);
 
@@ -113,16 +183,34 @@ public class EscampePlayer implements IJoueur{
             // C'est un placement initial - utiliser les ouvertures pré-calculées
             String openingMove = useOpeningBook();
             if (openingMove != null) {
-                System.out.println("Utilisation de l'ouverture pré-calculée: " + openingMove);
-                EscampeMove move = new EscampeMove(openingMove);
+                Log.info("Utilisation de l'ouverture pré-calculée: " + openingMove);
+                EscampeMove move = EscampeMove.parse(openingMove);
                 board.playVoid(move, myRole);
                 board.saveToFile(PLATEAU_FILE);
                 return openingMove;
             }
         }
 
-        // Utiliser l'IA pour trouver le meilleur coup
-        EscampeMove bestMove = aiPlayer.bestMove(board);
+        // Prise de licorne forcée : le coup prouvé est joué aussitôt, sans recherche
+        EscampeMove bestMove = provenMove(Math.max(1, budget / SOLVER_TIME_SHARE));
+        int depth = 0;
+
+        // Réponse attendue : la recherche lancée pendant le temps adverse continue jusqu'à la fin du temps alloué
+        if (bestMove == null && ponderHit) {
+            bestMove = finishPondering(timeLeft(deadline));
+            depth = ponderSearch.getCompletedDepth();
+            if (bestMove != null && !board.possibleMoves(myRole).contains(bestMove)) {
+                bestMove = null; // Le plateau lu ne correspond pas à la position anticipée
+            }
+        }
+        stopPondering();
+
+        // Sinon utiliser l'IA pour trouver le meilleur coup dans le temps qui reste sur ce coup
+        if (bestMove == null) {
+            search.setTimeLimit(timeLeft(deadline));
+            bestMove = aiPlayer.bestMove(board);
+            depth = search.getCompletedDepth();
+        }
 
         if (bestMove == null) {
             return "E";
@@ -134,11 +222,109 @@ public class EscampePlayer implements IJoueur{
         // Sauvegarder l'état mis à jour
         board.saveToFile(PLATEAU_FILE);
 
+        // Réfléchir sur la réponse adverse pendant que l'arbitre attend l'adversaire
+        startPondering();
+
         // Retourner le coup au format string
-        System.out.println("[DEBUG] Coup envoyé : " + bestMove);
+        if (Log.isEnabled(Log.Level.DEBUG)) {
+            Log.debug("Coup envoyé : " + bestMove + " (profondeur " + depth + ")");
+        }
         return bestMove.toString();
     }
 
+    // Temps restant avant l'échéance du coup, en millisecondes (au moins 1)
+    private static long timeLeft(long deadline) {
+        return Math.max(1, deadline - System.currentTimeMillis());
+    }
+
+    // Cherche une prise forcée de la licorne adverse avec le solveur, sur une petite part du temps du coup
+    // @param budgetMillis temps accordé au solveur
+    // @return le premier coup de la ligne gagnante, ou null si rien n'est prouvé
+    private EscampeMove provenMove(long budgetMillis) {
+        if (solver.solve(board, myRole, SOLVER_MAX_PLIES, 0, budgetMillis) != EscampeSolver.Result.PROVEN) {
+            return null;
+        }
+        if (Log.isEnabled(Log.Level.DEBUG)) {
+            Log.debug("Prise forcée : " + solver.getWinningLine() + " (" + solver.getNodes() + " nœuds)");
+        }
+        return solver.getWinningLine().get(0);
+    }
+
+    // ---- Réflexion pendant le temps adverse ----
+
+    // Lance la recherche sur la position après la réponse adverse attendue (le coup de la variation principale
+    // trouvé dans la table de transposition), ou sur toutes les réponses adverses si elle est inconnue.
+    // Elle approfondit sans limite de temps jusqu'à l'arrivée du coup adverse.
+    private void startPondering() {
+        EscampeRole opponentRole = (myRole == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        long opponentPieces = (opponentRole == EscampeRole.WHITE)
+                              ? (board.getWhiteUnicorn() | board.getWhitePaladins())
+                              : (board.getBlackUnicorn() | board.getBlackPaladins());
+        if (!PONDER || opponentPieces == 0L || board.isGameOver()) {
+            return; // Pas de réflexion pendant les placements
+        }
+
+        EscampeBoard ponderBoard = board.copy();
+        EscampeRole toMove = opponentRole;
+        ponderMove = search.hashMove(ponderBoard, opponentRole);
+        if (ponderMove != null) {
+            ponderBoard.playVoid(ponderMove, opponentRole);
+            toMove = myRole;
+        }
+
+        ponderStop = new AtomicBoolean();
+        ponderSearch = new AlphaBeta<>(myRole, opponentRole, heuristic, MAX_SEARCH_DEPTH, true); // Même table : même version
+        ponderSearch.setPrincipalVariationSearch(true);
+        ponderSearch.setAspirationWindow(ASPIRATION_WINDOW);
+        ponderSearch.setTranspositionTable(search.getTranspositionTable()); // Ce qui est trouvé resservira
+        ponderSearch.setStopSignal(ponderStop);
+        ponderSearch.setQuiescence(true);
+        ponderSearch.setMoveOrderer(orderer); // Jamais en même temps que la recherche principale
+        ponderSearch.setStagedGeneration(true);
+        ponderSearch.setSelectiveSearch(new EscampeSelectivity());
+        ponderSearch.setLateMoveReductions(true);
+        ponderSearch.setFutilityPruning(true);
+        AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> pondering = ponderSearch;
+        EscampeRole ponderRole = toMove;
+        ponderResult = ponderThread.submit(() -> pondering.bestMove(ponderBoard, ponderRole));
+    }
+
+    // Laisse la recherche anticipée continuer pendant le temps alloué au coup, puis l'arrête
+    // @return le meilleur coup de la dernière profondeur complète, ou null
+    private EscampeMove finishPondering(long budgetMillis) {
+        try {
+            return ponderResult.get(budgetMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return stopPondering();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return stopPondering();
+        } catch (ExecutionException e) {
+            Log.error("Erreur pendant la réflexion anticipée: " + e.getCause());
+            return null;
+        }
+    }
+
+    // Arrête la recherche anticipée en cours et attend sa fin
+    // @return le meilleur coup de la dernière profondeur complète, ou null
+    private EscampeMove stopPondering() {
+        ponderHit = false;
+        if (ponderResult == null) {
+            return null;
+        }
+        ponderStop.set(true);
+        EscampeMove result = null;
+        try {
+            result = ponderResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.error("Erreur pendant la réflexion anticipée: " + e.getCause());
+        }
+        ponderResult = null;
+        return result;
+    }
+
     // Utilise le livre d'ouvertures pour choisir le meilleur placement initial
     private String useOpeningBook() {
         if (myRole == EscampeRole.BLACK) {
@@ -149,53 +335,35 @@ public class EscampePlayer implements IJoueur{
             long blackPieces = board.getBlackUnicorn() | board.getBlackPaladins();
 
             if (blackPieces != 0L) {
-                // Les Noirs ont déjà placé leurs pièces
-                // Reconstruire le placement Noir pour chercher dans le dictionnaire
-                String blackPlacement = reconstructPlacement(board, EscampeRole.BLACK);
-
-                if (blackPlacement != null && whiteOpenings.containsKey(blackPlacement)) {
-                    return whiteOpenings.get(blackPlacement);
-                }
+                // Les Noirs ont déjà placé leurs pièces : on cherche la position par sa clé de Zobrist
+                EscampeMove blackPlacement = EscampeMove.placement(
+                        Long.numberOfTrailingZeros(board.getBlackUnicorn()), board.getBlackPaladins());
+                return whiteOpenings.get(blackPlacementKey(blackPlacement));
             }
         }
 
         return null;
     }
 
-    // Reconstruit le placement d'un joueur depuis le plateau
-    private String reconstructPlacement(EscampeBoard board, EscampeRole role) {
-        long unicorn = (role == EscampeRole.WHITE) ? board.getWhiteUnicorn() : board.getBlackUnicorn();
-        long paladins = (role == EscampeRole.WHITE) ? board.getWhitePaladins() : board.getBlackPaladins();
-
-        StringBuilder placement = new StringBuilder();
-
-        // Trouver la licorne (première pièce)
-        for (int i = 0; i < 36; i++) {
-            if ((unicorn & (1L << i)) != 0) {
-                placement.append(EscampeBoard.indexToString(i));
-                break;
-            }
-        }
-
-        // Trouver les paladins
-        for (int i = 0; i < 36; i++) {
-            if ((paladins & (1L << i)) != 0) {
-                placement.append("/").append(EscampeBoard.indexToString(i));
-            }
-        }
-
-        return placement.length() > 0 ? placement.toString() : null;
+    // Clé de la position obtenue en jouant le placement Noir sur un plateau vide
+    // (indépendante du tour courant du plateau lu dans plateau.txt)
+    private static long blackPlacementKey(EscampeMove blackPlacement) {
+        EscampeBoard placed = new EscampeBoard();
+        placed.playVoid(blackPlacement, EscampeRole.BLACK);
+        return placed.hashKey();
     }
 
     @Override
     public void declareLeVainqueur(int colour) {
+        stopPondering();
         if (colour == myColour) {
-            System.out.println("Victoire ! J'ai gagné !");
+            Log.info("Victoire ! J'ai gagné !");
         } else if (colour == 0) { // VIDE = 0 (match nul)
-            System.out.println("Match nul.");
+            Log.info("Match nul.");
         } else {
-            System.out.println("Défaite... L'adversaire a gagné.");
+            Log.info("Défaite... L'adversaire a gagné.");
         }
+        Log.flush();
     }
 
     @Override
@@ -204,11 +372,18 @@ public class EscampePlayer implements IJoueur{
         board.setFromFile(PLATEAU_FILE);
 
         // Créer le mouvement de l'ennemi
-        EscampeMove ennemyMove = new EscampeMove(coup);
+        EscampeMove ennemyMove = EscampeMove.parse(coup);
 
         // Déterminer le rôle adverse
         EscampeRole ennemyRole = (myRole == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
 
+        // Réponse attendue : la recherche anticipée continue, sinon elle est abandonnée
+        if (ponderResult != null && ponderMove != null && ponderMove.equals(ennemyMove)) {
+            ponderHit = true;
+        } else {
+            stopPondering();
+        }
+
         // Appliquer le mouvement ennemi sur notre plateau
         board.playVoid(ennemyMove, ennemyRole);
 
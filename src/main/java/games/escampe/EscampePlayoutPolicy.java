@@ -0,0 +1,97 @@
+package games.escampe;
+
+import iialib.games.algs.IPlayoutPolicy;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * Parties aléatoires pour la recherche MCTS sur Escampe, jouées directement sur les bitboards du plateau :
+ * - un coup est tiré uniformément parmi les coups légaux, en comptant les cases d'arrivée de chaque pièce
+ *   jouable (popcount) puis en retrouvant la case tirée, sans construire la liste des coups
+ * - en mode biaisé, la prise de la licorne adverse est toujours jouée quand elle est possible
+ * - sans coup légal, le joueur passe ; les placements (rares) sont tirés dans la liste de possibleMoves
+ * Aucune allocation pendant les déplacements : la politique est partagée par les threads de la recherche.
+ */
+public class EscampePlayoutPolicy implements IPlayoutPolicy<EscampeMove, EscampeRole, EscampeBoard> {
+
+    private final boolean capturesFirst; // Prise de licorne jouée dès qu'elle est possible
+
+    public EscampePlayoutPolicy() {
+        this(true);
+    }
+
+    public EscampePlayoutPolicy(boolean capturesFirst) {
+        this.capturesFirst = capturesFirst;
+    }
+
+    @Override
+    public int playout(EscampeBoard board, EscampeRole playerRole, SplittableRandom random, int[] moveCodes) {
+        EscampeRole role = playerRole;
+        int plies = 0;
+        while (plies < moveCodes.length && !board.isGameOver()) {
+            EscampeMove move = randomMove(board, role, random);
+            moveCodes[plies++] = move.getDisplacementCode();
+            board.makeMove(move, role);
+            role = role == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+        }
+        return plies;
+    }
+
+    @Override
+    public int result(EscampeBoard board, EscampeRole playerRole) {
+        if (!board.isGameOver()) return 0; // Partie trop longue : nulle
+        boolean whiteWon = board.getBlackUnicorn() == 0L;
+        return whiteWon == (playerRole == EscampeRole.WHITE) ? 1 : -1;
+    }
+
+    @Override
+    public EscampeMove passMove() {
+        return EscampeMove.PASS;
+    }
+
+    /** Tire un coup du joueur
+     * @param board le plateau
+     * @param player le joueur qui joue
+     * @param random le générateur du thread
+     * @return le coup tiré, ou PASS si le joueur n'a aucun coup
+     */
+    EscampeMove randomMove(EscampeBoard board, EscampeRole player, SplittableRandom random) {
+        boolean isWhite = (player == EscampeRole.WHITE);
+        long myPaladins = isWhite ? board.getWhitePaladins() : board.getBlackPaladins();
+        if ((myPaladins | (isWhite ? board.getWhiteUnicorn() : board.getBlackUnicorn())) == 0L) {
+            ArrayList<EscampeMove> placements = board.possibleMoves(player);
+            return placements.get(random.nextInt(placements.size()));
+        }
+
+        long movers = board.movers(player);
+        long opponentUnicorn = isWhite ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+        if (capturesFirst && opponentUnicorn != 0L) {
+            long attackers = board.unicornAttackers(myPaladins & movers, opponentUnicorn);
+            if (attackers != 0L) {
+                return EscampeMove.of(Long.numberOfTrailingZeros(attackers), Long.numberOfTrailingZeros(opponentUnicorn));
+            }
+        }
+
+        // Premier passage : nombre de coups ; second passage : la pièce et la case du coup tiré
+        int count = 0;
+        for (long pieces = movers; pieces != 0; pieces &= pieces - 1) {
+            count += Long.bitCount(board.destinations(Long.numberOfTrailingZeros(pieces), isWhite));
+        }
+        if (count == 0) return EscampeMove.PASS;
+
+        int index = random.nextInt(count);
+        for (long pieces = movers; ; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            long destinations = board.destinations(from, isWhite);
+            int n = Long.bitCount(destinations);
+            if (index < n) {
+                for (; index > 0; index--) {
+                    destinations &= destinations - 1;
+                }
+                return EscampeMove.of(from, Long.numberOfTrailingZeros(destinations));
+            }
+            index -= n;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package games.escampe;
+
+import iialib.games.algs.ISelectiveSearch;
+
+/**
+ * Connaissances d'Escampe pour la recherche sélective d'AlphaBeta :
+ * - un coup est calme s'il ne prend pas la licorne adverse et si, après lui, aucun paladin ne l'attaque
+ *   (les coups calmes peuvent être réduits, ou ignorés près des feuilles)
+ * - un coup est prolongé d'un demi-coup s'il crée une attaque directe d'un paladin sur la licorne adverse, ou si
+ *   le liseré imposé ne laisse que deux coups ou moins à l'adversaire
+ * - la marge de futilité est celle d'EscampeHeuristics
+ */
+public class EscampeSelectivity implements ISelectiveSearch<EscampeMove, EscampeRole, EscampeBoard> {
+
+    private static final int RESTRICTED_REPLIES = 2; // Nombre de réponses adverses en dessous duquel on prolonge
+
+    @Override
+    public boolean isQuiet(EscampeBoard board, EscampeRole playerRole, EscampeMove move) {
+        int from = move.getFromIndex();
+        if (from < 0) return false; // Placement ou passage : jamais réduit
+        int to = move.getToIndex();
+        boolean isWhite = playerRole == EscampeRole.WHITE;
+        long opponentUnicorn = isWhite ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+        if ((opponentUnicorn & (1L << to)) != 0) return false; // Prise
+
+        // Après le coup, aucun paladin ne doit atteindre la licorne adverse (attaque directe ou découverte)
+        long paladins = isWhite ? board.getWhitePaladins() : board.getBlackPaladins();
+        if ((paladins & (1L << from)) != 0) paladins = (paladins & ~(1L << from)) | (1L << to);
+        long occupancyAfter = (allPieces(board) & ~(1L << from)) | (1L << to);
+        while (paladins != 0) {
+            if ((EscampeBoard.reachableSquares(Long.numberOfTrailingZeros(paladins), occupancyAfter) & opponentUnicorn) != 0) {
+                return false;
+            }
+            paladins &= paladins - 1;
+        }
+        return true;
+    }
+
+    @Override
+    public int extension(EscampeBoard board, EscampeRole playerRole, EscampeMove move) {
+        int to = move.getToIndex();
+        if (to < 0 || board.isGameOver()) return 0;
+        boolean isWhite = playerRole == EscampeRole.WHITE;
+        EscampeRole opponentRole = isWhite ? EscampeRole.BLACK : EscampeRole.WHITE;
+
+        // Attaque directe : le paladin joué atteint la licorne adverse
+        long paladins = isWhite ? board.getWhitePaladins() : board.getBlackPaladins();
+        long opponentUnicorn = isWhite ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+        if ((paladins & (1L << to)) != 0
+                && (EscampeBoard.reachableSquares(to, allPieces(board)) & opponentUnicorn) != 0) {
+            return 1;
+        }
+
+        // Coup restrictif : le liseré d'arrivée ne laisse presque aucun choix à l'adversaire
+        return board.countMoves(opponentRole) <= RESTRICTED_REPLIES ? 1 : 0;
+    }
+
+    @Override
+    public int futilityMargin(int remaining) {
+        return EscampeHeuristics.futilityMargin(remaining);
+    }
+
+    private static long allPieces(EscampeBoard board) {
+        return board.getWhitePaladins() | board.getWhiteUnicorn() | board.getBlackPaladins() | board.getBlackUnicorn();
+    }
+}
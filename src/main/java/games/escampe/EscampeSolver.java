@@ -0,0 +1,312 @@
+package games.escampe;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * Solveur des prises forcées de licorne, par recherche en nombres de preuve en profondeur d'abord (df-pn).
+ *
+ * Il prouve ou réfute « le joueur au trait prend la licorne adverse en au plus N demi-coups », quelles que
+ * soient les réponses adverses. Chaque nœud porte un nombre de preuve (pn : nombre minimal de feuilles à
+ * prouver pour le prouver) et un nombre de réfutation (dn) ; la recherche descend toujours vers le nœud le plus
+ * facile à prouver ou réfuter, sous des seuils qui évitent de remonter à la racine après chaque feuille.
+ *
+ * - un nœud de l'attaquant est prouvé dès qu'un de ses paladins jouables atteint la licorne adverse
+ * - un nœud du défenseur est réfuté s'il peut prendre la licorne de l'attaquant, ou s'il reste moins de deux
+ *   demi-coups ; le nombre de preuve initial d'un nœud du défenseur est son nombre de coups
+ * - la profondeur restante fait partie de la clé de la table : le graphe cherché n'a pas de cycle, même si les
+ *   positions se répètent (les déplacements sont réversibles)
+ * - la table de taille bornée garde de préférence les nœuds résolus et ceux qui ont coûté le plus de travail
+ * - la borne est augmentée de deux demi-coups à chaque itération : la première preuve est la plus courte
+ *
+ * Le solveur n'est pas thread-safe (un par thread).
+ */
+public class EscampeSolver {
+
+    /** Résultat d'une résolution */
+    public enum Result { PROVEN, DISPROVEN, UNKNOWN }
+
+    private static final int INFINITY = 100_000_000; // pn ou dn d'un nœud résolu (les sommes sont saturées)
+    private static final int MAX_PLIES = 63; // Borne maximale de la recherche
+    private static final int NO_MOVE = -1;
+    private static final int PASS_CODE = 4096; // Code du passage dans la table (les déplacements sont sur 12 bits)
+    private static final int ENTRY_BYTES = 8 + 4 + 4 + 4 + 2; // Clé, pn, dn, travail, coup
+    private static final int TIME_CHECK_MASK = 1023; // L'horloge est consultée tous les 1024 nœuds
+
+    private static final long[] DEPTH_KEYS = new long[MAX_PLIES + 1]; // Mêlées à la clé de Zobrist selon la borne restante
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        for (int i = 0; i < DEPTH_KEYS.length; i++) {
+            DEPTH_KEYS[i] = random.nextLong();
+        }
+    }
+
+    // Table de transposition en tableaux parallèles, par paires d'entrées
+    private final long[] keys;
+    private final int[] proofs;
+    private final int[] disproofs;
+    private final int[] works; // Nœuds développés sous l'entrée : les plus coûteuses sont gardées
+    private final short[] moves; // Meilleur coup (NO_MOVE, code de déplacement ou PASS_CODE)
+    private final int mask;
+
+    // Recherche en cours
+    private EscampeRole attacker;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean aborted;
+    private int lastProof, lastDisproof; // Résultat du dernier appel de mid ou evaluate
+    private final ArrayList<EscampeMove> winningLine = new ArrayList<>();
+
+    /** Crée un solveur
+     * @param tableSizeMb taille de la table de transposition en mégaoctets
+     */
+    public EscampeSolver(int tableSizeMb) {
+        int entries = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(2, (long) tableSizeMb * 1024 * 1024 / ENTRY_BYTES)));
+        keys = new long[entries];
+        proofs = new int[entries];
+        disproofs = new int[entries];
+        works = new int[entries];
+        moves = new short[entries];
+        mask = entries - 1;
+    }
+
+    /** Cherche une prise forcée de la licorne adverse
+     * @param board la position (non modifiée)
+     * @param player le joueur au trait, qui cherche à prendre la licorne
+     * @param maxPlies nombre maximal de demi-coups de la ligne gagnante (coup de prise compris)
+     * @param nodeBudget nombre maximal de nœuds développés (0 : pas de limite)
+     * @param timeMillis temps maximal en millisecondes (0 : pas de limite)
+     * @return PROVEN si la prise est forcée (voir getWinningLine), DISPROVEN si elle ne l'est pas en maxPlies
+     *         demi-coups, UNKNOWN si le budget a été épuisé avant
+     */
+    public Result solve(EscampeBoard board, EscampeRole player, int maxPlies, long nodeBudget, long timeMillis) {
+        winningLine.clear();
+        nodes = 0;
+        aborted = false;
+        maxNodes = nodeBudget > 0 ? nodeBudget : Long.MAX_VALUE;
+        deadline = timeMillis > 0 ? System.nanoTime() + timeMillis * 1_000_000 : Long.MAX_VALUE;
+        attacker = player;
+        if (board.isGameOver() || isPlacementPhase(board)) return Result.UNKNOWN;
+
+        EscampeBoard position = board.copy(); // Plateau de recherche, modifié avec makeMove / unmakeMove
+        maxPlies = Math.min(maxPlies, MAX_PLIES);
+        for (int plies = 1; plies <= maxPlies; plies += 2) {
+            evaluate(position, player, true, plies);
+            if (lastProof != 0 && lastDisproof != 0) {
+                mid(position, player, true, plies, INFINITY, INFINITY);
+            }
+            if (lastProof == 0) {
+                buildLine(position, plies);
+                return Result.PROVEN;
+            }
+            if (aborted) return Result.UNKNOWN;
+        }
+        return Result.DISPROVEN;
+    }
+
+    /** Ligne gagnante de la dernière preuve : coups de l'attaquant et réponses du défenseur, jusqu'à la prise
+     * (elle peut être tronquée si la table a perdu des entrées, le premier coup est toujours présent)
+     * @return la ligne, vide si la dernière résolution n'a rien prouvé
+     */
+    public ArrayList<EscampeMove> getWinningLine() {
+        return winningLine;
+    }
+
+    /** Nombre de nœuds développés par la dernière résolution (pour les statistiques)
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    // ---------------- Recherche ----------------
+
+    /** Développe un nœud jusqu'à ce que son pn ou son dn atteigne son seuil (résultat dans lastProof / lastDisproof)
+     * @param board la position (rendue dans le même état)
+     * @param role le joueur au trait
+     * @param attacking vrai si le joueur au trait est l'attaquant (nœud OU), faux pour le défenseur (nœud ET)
+     * @param remaining demi-coups restants pour prendre la licorne
+     */
+    private void mid(EscampeBoard board, EscampeRole role, boolean attacking, int remaining, int proofThreshold, int disproofThreshold) {
+        nodes++;
+        if (nodes >= maxNodes || ((nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        long startNodes = nodes;
+        long key = board.hashKey() ^ DEPTH_KEYS[remaining];
+
+        ArrayList<EscampeMove> children = board.possibleMoves(role);
+        if (children.isEmpty()) {
+            children.add(EscampeMove.PASS); // Sans coup, le joueur passe
+        }
+        int count = children.size();
+        int[] childProofs = new int[count];
+        int[] childDisproofs = new int[count];
+        EscampeRole next = opponent(role);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(children.get(i), role);
+            evaluate(board, next, !attacking, remaining - 1);
+            board.unmakeMove();
+            childProofs[i] = lastProof;
+            childDisproofs[i] = lastDisproof;
+        }
+
+        int proof, disproof, best;
+        while (true) {
+            // Nœud OU : pn = min des pn, dn = somme des dn ; nœud ET : l'inverse
+            int[] selected = attacking ? childProofs : childDisproofs;
+            int[] summed = attacking ? childDisproofs : childProofs;
+            best = 0;
+            int second = INFINITY;
+            int sum = 0;
+            for (int i = 0; i < count; i++) {
+                if (selected[i] < selected[best]) {
+                    second = selected[best];
+                    best = i;
+                } else if (i != best && selected[i] < second) {
+                    second = selected[i];
+                }
+                sum = Math.min(INFINITY, sum + summed[i]);
+            }
+            proof = attacking ? selected[best] : sum;
+            disproof = attacking ? sum : selected[best];
+            if (proof >= proofThreshold || disproof >= disproofThreshold || aborted) break;
+
+            // Seuils de l'enfant : il est développé tant qu'il reste le meilleur et que le nœud reste sous ses seuils
+            int childProofThreshold, childDisproofThreshold;
+            if (attacking) {
+                childProofThreshold = Math.min(proofThreshold, second + 1);
+                childDisproofThreshold = (int) Math.min(INFINITY, (long) disproofThreshold - disproof + childDisproofs[best]);
+            } else {
+                childProofThreshold = (int) Math.min(INFINITY, (long) proofThreshold - proof + childProofs[best]);
+                childDisproofThreshold = Math.min(disproofThreshold, second + 1);
+            }
+            board.makeMove(children.get(best), role);
+            mid(board, next, !attacking, remaining - 1, childProofThreshold, childDisproofThreshold);
+            board.unmakeMove();
+            childProofs[best] = lastProof;
+            childDisproofs[best] = lastDisproof;
+        }
+
+        store(key, proof, disproof, nodes - startNodes, moveCode(children.get(best)));
+        lastProof = proof;
+        lastDisproof = disproof;
+    }
+
+    /** Valeurs initiales d'un nœud : résolu par les règles, lu dans la table, ou estimé (dans lastProof / lastDisproof)
+     */
+    private void evaluate(EscampeBoard board, EscampeRole role, boolean attacking, int remaining) {
+        if (board.isGameOver()) { // Le joueur qui vient de jouer a pris la licorne
+            setResult(!attacking);
+            return;
+        }
+        if (canCapture(board, role)) {
+            setResult(attacking); // L'attaquant prend tout de suite, ou le défenseur prend avant lui
+            return;
+        }
+        if (remaining < (attacking ? 3 : 2)) { // Pas assez de demi-coups pour un coup de chaque camp puis la prise
+            setResult(false);
+            return;
+        }
+
+        int index = find(board.hashKey() ^ DEPTH_KEYS[remaining]);
+        if (index >= 0) {
+            lastProof = proofs[index];
+            lastDisproof = disproofs[index];
+        } else {
+            lastProof = attacking ? 1 : Math.max(1, board.countMoves(role)); // Toutes les défenses devront être réfutées
+            lastDisproof = 1;
+        }
+    }
+
+    private void setResult(boolean proven) {
+        lastProof = proven ? 0 : INFINITY;
+        lastDisproof = proven ? INFINITY : 0;
+    }
+
+    /** Vrai si un paladin jouable du joueur atteint la licorne adverse
+     */
+    private static boolean canCapture(EscampeBoard board, EscampeRole role) {
+        boolean isWhite = role == EscampeRole.WHITE;
+        long unicorn = isWhite ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+        long paladins = (isWhite ? board.getWhitePaladins() : board.getBlackPaladins()) & board.movers(role);
+        return unicorn != 0L && board.unicornAttackers(paladins, unicorn) != 0L;
+    }
+
+    /** Reconstruit la ligne prouvée depuis la table : coup de la table, ou prise directe en fin de ligne
+     */
+    private void buildLine(EscampeBoard board, int plies) {
+        EscampeRole role = attacker;
+        boolean attacking = true;
+        int remaining = plies;
+        while (remaining > 0 && !board.isGameOver()) {
+            EscampeMove move = attacking ? captureMove(board, role) : null;
+            if (move == null) {
+                int index = find(board.hashKey() ^ DEPTH_KEYS[remaining]);
+                if (index < 0 || moves[index] == NO_MOVE) break;
+                move = moves[index] == PASS_CODE ? EscampeMove.PASS : EscampeMove.fromCode(moves[index]);
+            }
+            winningLine.add(move);
+            board.makeMove(move, role);
+            role = opponent(role);
+            attacking = !attacking;
+            remaining--;
+        }
+        for (int i = 0; i < winningLine.size(); i++) {
+            board.unmakeMove();
+        }
+    }
+
+    private static EscampeMove captureMove(EscampeBoard board, EscampeRole role) {
+        boolean isWhite = role == EscampeRole.WHITE;
+        long unicorn = isWhite ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+        long paladins = (isWhite ? board.getWhitePaladins() : board.getBlackPaladins()) & board.movers(role);
+        long attackers = unicorn == 0L ? 0L : board.unicornAttackers(paladins, unicorn);
+        if (attackers == 0L) return null;
+        return EscampeMove.of(Long.numberOfTrailingZeros(attackers), Long.numberOfTrailingZeros(unicorn));
+    }
+
+    // ---------------- Table de transposition ----------------
+
+    private int find(long key) {
+        int index = (int) key & mask & ~1;
+        if (keys[index] == key && works[index] != 0) return index;
+        if (keys[index + 1] == key && works[index + 1] != 0) return index + 1;
+        return -1;
+    }
+
+    /** Range un nœud : dans l'entrée de même clé, sinon à la place de la moins précieuse des deux
+     * (les nœuds résolus passent avant ceux qui ne le sont pas, puis le travail le plus important)
+     */
+    private void store(long key, int proof, int disproof, long work, int move) {
+        int index = (int) key & mask & ~1;
+        if (keys[index] != key && (keys[index + 1] == key || value(index + 1) < value(index))) {
+            index++;
+        }
+        keys[index] = key;
+        proofs[index] = proof;
+        disproofs[index] = disproof;
+        works[index] = (int) Math.max(1, Math.min(Integer.MAX_VALUE >> 1, work)); // 0 : entrée vide
+        moves[index] = (short) move;
+    }
+
+    private long value(int index) {
+        if (works[index] == 0) return -1; // Entrée vide
+        boolean solved = proofs[index] == 0 || disproofs[index] == 0;
+        return (solved ? 1L << 32 : 0L) + works[index];
+    }
+
+    private static int moveCode(EscampeMove move) {
+        return move.isPass() ? PASS_CODE : move.getDisplacementCode();
+    }
+
+    private static boolean isPlacementPhase(EscampeBoard board) {
+        return (board.getWhitePaladins() | board.getWhiteUnicorn()) == 0L
+               || (board.getBlackPaladins() | board.getBlackUnicorn()) == 0L;
+    }
+
+    private static EscampeRole opponent(EscampeRole role) {
+        return role == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+    }
+}
@@ -0,0 +1,181 @@
+package games.escampe;
+
+import iialib.games.algs.IEndgameTable;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tables de finales d'Escampe à matériel réduit : pour chaque position (licornes, paladins, joueur au trait,
+ * contrainte de liseré), la distance en demi-coups à la prise d'une licorne avec le meilleur jeu des deux camps.
+ *
+ * Une table par matériel (nombre de paladins blancs et noirs), écrite par TablebaseGenerator dans un fichier
+ * data/tablebases/w<blancs>b<noirs>.etb : un en-tête puis une valeur par index, sur le nombre de bits minimal.
+ * - valeur 0 : nulle (personne ne peut forcer la prise) ou position impossible
+ * - valeur impaire d : le joueur au trait gagne en d demi-coups
+ * - valeur paire d : le joueur au trait perd en d demi-coups
+ *
+ * Les fichiers sont projetés en mémoire (FileChannel.map, par segments d'un Go) : la recherche les lit aux
+ * feuilles sans les charger. Les tables grossissent vite (w1b1 : 13 millions d'index, w1b3 et w2b2 : 2,7 et
+ * 4,1 milliards, w2b3 : 47 milliards) ; la génération garde un octet par index en mémoire, au-delà de quatre
+ * paladins au total elle n'est donc pas réaliste et MAX_PALADINS borne les matériels cherchés à 3 par camp.
+ * Attention : les paladins ne sont jamais pris à Escampe, une partie normale garde ses cinq paladins par camp ;
+ * les tables ne servent qu'aux positions composées avec moins de pièces (études, entraînement) ;
+ * EscampePlayer ne les charge donc pas, une étude les branche avec AlphaBeta.setEndgameTable.
+ */
+public class EscampeTablebase implements IEndgameTable<EscampeBoard, EscampeRole> {
+
+    static final int MAGIC = 0x45544231; // "ETB1"
+    static final int HEADER_BYTES = 32; // Magique, paladins blancs et noirs, bits par valeur, distance max, nombre d'index
+    static final int MAX_PALADINS = 3;
+    static final int SQUARES = 36;
+    private static final int SEGMENT_BITS = 30; // Octets par projection
+
+    /** Coefficients binomiaux C(n, k) pour n <= 36, k <= MAX_PALADINS (rang des ensembles de paladins) */
+    static final long[][] BINOMIALS = new long[SQUARES + 1][MAX_PALADINS + 1];
+
+    static {
+        for (int n = 0; n <= SQUARES; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= MAX_PALADINS; k++) {
+                BINOMIALS[n][k] = n == 0 ? 0 : BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+            }
+        }
+    }
+
+    private final MappedByteBuffer[][][] tables = new MappedByteBuffer[MAX_PALADINS + 1][MAX_PALADINS + 1][];
+    private final int[][] bits = new int[MAX_PALADINS + 1][MAX_PALADINS + 1];
+    private int tableCount;
+
+    /** Ouvre toutes les tables présentes dans un répertoire
+     * @param directory le répertoire des fichiers .etb (il peut ne pas exister)
+     * @throws IOException si un fichier présent ne peut pas être lu ou n'est pas une table
+     */
+    public EscampeTablebase(String directory) throws IOException {
+        for (int white = 1; white <= MAX_PALADINS; white++) {
+            for (int black = 1; black <= MAX_PALADINS; black++) {
+                Path file = Paths.get(directory, fileName(white, black));
+                if (Files.exists(file)) {
+                    open(file, white, black);
+                }
+            }
+        }
+    }
+
+    /** Nombre de tables ouvertes
+     */
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    @Override
+    public int probe(EscampeBoard board, EscampeRole playerRole) {
+        long whiteUnicorn = board.getWhiteUnicorn();
+        long blackUnicorn = board.getBlackUnicorn();
+        if (whiteUnicorn == 0L || blackUnicorn == 0L) return NOT_FOUND;
+        int white = Long.bitCount(board.getWhitePaladins());
+        int black = Long.bitCount(board.getBlackPaladins());
+        if (white > MAX_PALADINS || black > MAX_PALADINS || tables[white][black] == null) return NOT_FOUND;
+
+        long index = index(white, black, board.getWhitePaladins(), whiteUnicorn, board.getBlackPaladins(), blackUnicorn,
+                           playerRole == EscampeRole.WHITE, board.getNextMoveConstraint());
+        int distance = read(tables[white][black], bits[white][black], index);
+        if (distance == 0) return 0;
+        return (distance & 1) == 1 ? EscampeHeuristics.VICTORY - distance : EscampeHeuristics.DEFEAT + distance;
+    }
+
+    // ---------------- Index ----------------
+
+    /** Nom du fichier de la table d'un matériel
+     */
+    static String fileName(int white, int black) {
+        return "w" + white + "b" + black + ".etb";
+    }
+
+    /** Nombre d'index d'une table : cases des licornes, rangs des ensembles de paladins, joueur au trait, contrainte
+     */
+    static long size(int white, int black) {
+        return (long) SQUARES * SQUARES * BINOMIALS[SQUARES][white] * BINOMIALS[SQUARES][black] * 8;
+    }
+
+    /** Index d'une position dans la table de son matériel (les pièces ne doivent pas se superposer)
+     */
+    static long index(int white, int black, long whitePaladins, long whiteUnicorn, long blackPaladins, long blackUnicorn,
+                      boolean whiteToMove, int constraint) {
+        long index = Long.numberOfTrailingZeros(whiteUnicorn) * SQUARES + Long.numberOfTrailingZeros(blackUnicorn);
+        index = index * BINOMIALS[SQUARES][white] + rank(whitePaladins);
+        index = index * BINOMIALS[SQUARES][black] + rank(blackPaladins);
+        return (index * 2 + (whiteToMove ? 0 : 1)) * 4 + constraint;
+    }
+
+    /** Rang d'un ensemble de cases parmi ceux de même taille (ordre colexicographique)
+     */
+    static long rank(long squares) {
+        long rank = 0;
+        for (int k = 1; squares != 0; k++) {
+            rank += BINOMIALS[Long.numberOfTrailingZeros(squares)][k];
+            squares &= squares - 1;
+        }
+        return rank;
+    }
+
+    /** Ensemble de count cases de rang donné (inverse de rank)
+     */
+    static long unrank(long rank, int count) {
+        long squares = 0L;
+        for (int k = count; k >= 1; k--) {
+            int square = k - 1;
+            while (BINOMIALS[square + 1][k] <= rank) {
+                square++;
+            }
+            rank -= BINOMIALS[square][k];
+            squares |= 1L << square;
+        }
+        return squares;
+    }
+
+    // ---------------- Fichiers ----------------
+
+    /** Nombre de bits par valeur pour une distance maximale
+     */
+    static int bitsFor(int maxDistance) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxDistance));
+    }
+
+    /** Lit la valeur d'un index (au plus 8 bits, donc à cheval sur deux octets au plus)
+     */
+    static int read(MappedByteBuffer[] table, int bits, long index) {
+        long bit = index * bits;
+        long offset = HEADER_BYTES + (bit >>> 3);
+        MappedByteBuffer segment = table[(int) (offset >>> SEGMENT_BITS)];
+        int position = (int) (offset & ((1L << SEGMENT_BITS) - 1));
+        // Les segments se chevauchent d'un octet, et le fichier a un octet de marge à la fin
+        int word = (segment.get(position) & 0xFF) | ((segment.get(position + 1) & 0xFF) << 8);
+        return (word >>> (int) (bit & 7)) & ((1 << bits) - 1);
+    }
+
+    private void open(Path file, int white, int black) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            MappedByteBuffer[] table = new MappedByteBuffer[(int) ((length + (1L << SEGMENT_BITS) - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < table.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                table[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min((1L << SEGMENT_BITS) + 1, length - start));
+                table[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (length < HEADER_BYTES || table[0].getInt(0) != MAGIC || table[0].getInt(4) != white
+                || table[0].getInt(8) != black || table[0].getLong(20) != size(white, black)) {
+                throw new IOException("Table de finales invalide : " + file);
+            }
+            tables[white][black] = table; // Les projections restent valides après la fermeture du canal
+            bits[white][black] = table[0].getInt(12);
+            tableCount++;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package games.escampe;
+
+import iialib.games.algs.algorithms.LazySMP;
+
+import java.util.ArrayList;
+
+/**
+ * Mesure le passage à l'échelle de la recherche Lazy SMP.
+ * Pour 1, 2, 4 et 8 threads, le programme cherche les mêmes positions jusqu'à une profondeur fixe
+ * et affiche le temps pour l'atteindre, le nombre total de nœuds et les nœuds par seconde.
+ *
+ * Usage : LazySMPBenchmark [profondeur] [nombre de positions]
+ */
+public class LazySMPBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8};
+    private static final int TT_SIZE_MB = 64;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int positionCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        ArrayList<EscampeBoard> positions = new ArrayList<>();
+        ArrayList<EscampeRole> sides = new ArrayList<>();
+        ParallelSpeedup.generatePositions(positionCount, positions, sides);
+
+        System.out.println("=== Lazy SMP (profondeur " + depth + ", " + positions.size() + " positions, "
+                           + Runtime.getRuntime().availableProcessors() + " cœurs) ===");
+        System.out.println(String.format("%8s %14s %12s %12s %10s", "threads", "ms/profondeur", "nœuds", "nœuds/s", "accél."));
+
+        long referenceTime = 0;
+        for (int threads : THREADS) {
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < positions.size(); i++) {
+                EscampeRole side = sides.get(i);
+                EscampeRole opponent = side == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+                LazySMP<EscampeMove, EscampeRole, EscampeBoard> algorithm = new LazySMP<>(side, opponent,
+                        side == EscampeRole.WHITE ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack, depth, threads, TT_SIZE_MB);
+                algorithm.bestMove(positions.get(i), side);
+                nodes += algorithm.getNbNodes();
+                algorithm.shutdown();
+            }
+            long elapsed = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            if (referenceTime == 0) {
+                referenceTime = elapsed;
+            }
+            System.out.println(String.format("%8d %14d %12d %12d %10.2f", threads, elapsed / positions.size(), nodes,
+                                             nodes * 1000 / elapsed, (double) referenceTime / elapsed));
+        }
+    }
+}
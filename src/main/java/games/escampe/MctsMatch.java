@@ -0,0 +1,100 @@
+package games.escampe;
+
+import iialib.games.algs.algorithms.AlphaBeta;
+import iialib.games.algs.algorithms.MCTS;
+
+import java.util.ArrayList;
+
+/**
+ * Match entre la recherche MCTS et la recherche AlphaBeta du joueur, au même temps par coup.
+ * Chaque position de départ (tirée avec la graine de ParallelSpeedup) est jouée deux fois, MCTS prenant
+ * chaque couleur une fois ; le programme affiche le score de MCTS et sa vitesse en parties aléatoires par seconde.
+ *
+ * Usage : MctsMatch [nombre de positions] [ms par coup] [threads MCTS] [rave (true/false)]
+ */
+public class MctsMatch {
+
+    private static final int MAX_PLIES = 120; // Au-delà, la partie est nulle
+    private static final int MAX_SEARCH_DEPTH = 32;
+    private static final int TT_SIZE_MB = 16;
+    private static final int ASPIRATION_WINDOW = 200;
+
+    public static void main(String[] args) {
+        int positionCount = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        boolean rave = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        ArrayList<EscampeBoard> positions = new ArrayList<>();
+        ArrayList<EscampeRole> sides = new ArrayList<>();
+        ParallelSpeedup.generatePositions(positionCount, positions, sides);
+
+        System.out.println("=== MCTS (" + threads + " thread(s)" + (rave ? ", RAVE" : "") + ") contre AlphaBeta, "
+                           + millis + " ms par coup, " + positions.size() + " positions x 2 couleurs ===");
+
+        int wins = 0, losses = 0, draws = 0;
+        long playouts = 0, searchNanos = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            for (EscampeRole mctsRole : EscampeRole.values()) {
+                EscampeRole alphaBetaRole = mctsRole == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+                MCTS<EscampeMove, EscampeRole, EscampeBoard> mcts = new MCTS<>(mctsRole, alphaBetaRole,
+                        new EscampePlayoutPolicy(), millis);
+                mcts.setPlayoutsLimit(0);
+                mcts.setThreads(threads);
+                mcts.setRave(rave);
+                mcts.setTreeReuse(true);
+                AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> alphaBeta = alphaBeta(alphaBetaRole, mctsRole, millis);
+
+                EscampeBoard board = positions.get(i).copy();
+                EscampeRole side = sides.get(i);
+                for (int ply = 0; ply < MAX_PLIES && !board.isGameOver(); ply++) {
+                    EscampeMove move;
+                    if (side == mctsRole) {
+                        long start = System.nanoTime();
+                        move = mcts.bestMove(board, side);
+                        searchNanos += System.nanoTime() - start;
+                        playouts += mcts.getPlayouts();
+                    } else {
+                        move = alphaBeta.bestMove(board, side);
+                    }
+                    board.playVoid(move == null ? EscampeMove.PASS : move, side);
+                    side = side == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+                }
+                mcts.shutdown();
+
+                String result;
+                if (!board.isGameOver()) {
+                    draws++;
+                    result = "nulle";
+                } else if ((board.getBlackUnicorn() == 0L) == (mctsRole == EscampeRole.WHITE)) {
+                    wins++;
+                    result = "MCTS gagne";
+                } else {
+                    losses++;
+                    result = "AlphaBeta gagne";
+                }
+                System.out.println(String.format("position %2d, MCTS %-5s : %s", i, mctsRole, result));
+            }
+        }
+
+        System.out.println(String.format("MCTS : +%d -%d =%d, %d parties aléatoires/s par thread", wins, losses, draws,
+                                         playouts * 1_000_000_000L / Math.max(1, searchNanos) / threads));
+    }
+
+    /** Recherche AlphaBeta réglée comme celle d'EscampePlayer, bornée par le temps */
+    private static AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> alphaBeta(EscampeRole role, EscampeRole opponent, long millis) {
+        AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> search = new AlphaBeta<>(role, opponent,
+                role == EscampeRole.WHITE ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack, MAX_SEARCH_DEPTH, true);
+        search.setPrincipalVariationSearch(true);
+        search.setAspirationWindow(ASPIRATION_WINDOW);
+        search.setTranspositionTable(TT_SIZE_MB);
+        search.setQuiescence(true);
+        search.setMoveOrderer(new EscampeMoveOrderer());
+        search.setStagedGeneration(true);
+        search.setSelectiveSearch(new EscampeSelectivity());
+        search.setLateMoveReductions(true);
+        search.setFutilityPruning(true);
+        search.setTimeLimit(millis);
+        return search;
+    }
+}
@@ -2,13 +2,12 @@ package games.escampe;
 
 import iialib.games.algs.AIPlayer;
 import iialib.games.algs.algorithms.AlphaBeta;
+import iialib.games.log.Log;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Générateur d'ouvertures pour le jeu Escampe.
@@ -22,13 +21,15 @@ public class OpeningGenerator {
     private static final int TOP_N_OPENINGS = 20; // Nombre d'ouvertures Noires à calculer
 
     public static void main(String[] args) {
-        System.out.println("=== Générateur d'Ouvertures Escampe ===\n");
+        Log.useAsync(); // Les traces sont écrites par un thread séparé pendant le calcul
+        Log.info("=== Générateur d'Ouvertures Escampe ===\n");
 
         OpeningGenerator generator = new OpeningGenerator();
         generator.generateOpenings();
 
-        System.out.println("\n=== Génération terminée ===");
-        System.out.println("Les ouvertures ont été sauvegardées dans : " + OPENINGS_FILE);
+        Log.info("\n=== Génération terminée ===");
+        Log.info("Les ouvertures ont été sauvegardées dans : " + OPENINGS_FILE);
+        Log.flush();
     }
 
     public void generateOpenings() {
@@ -41,28 +42,28 @@ public class OpeningGenerator {
             writer.write("%\n\n");
 
             // 1. Calculer les TOP_N meilleures ouvertures pour les Noirs (avec AlphaBeta)
-            System.out.println("Calcul des " + TOP_N_OPENINGS + " meilleures ouvertures NOIRES (profondeur " + OPENING_DEPTH + ")...");
+            Log.info("Calcul des " + TOP_N_OPENINGS + " meilleures ouvertures NOIRES (profondeur " + OPENING_DEPTH + ")...");
             ArrayList<String> topBlackOpenings = findTopBlackOpenings();
 
             writer.write("% Meilleures ouvertures pour les Noirs (premier joueur)\n");
             for (String opening : topBlackOpenings) {
                 writer.write("BLACK:" + opening + "\n");
             }
-            System.out.println("✓ " + topBlackOpenings.size() + " meilleures ouvertures Noires calculées");
+            Log.info("✓ " + topBlackOpenings.size() + " meilleures ouvertures Noires calculées");
 
             // 2. Calculer les meilleures réponses Blanches pour chaque ouverture Noire (avec AlphaBeta)
-            System.out.println("\nCalcul des meilleures réponses BLANCHES (profondeur " + OPENING_DEPTH + ")...");
+            Log.info("\nCalcul des meilleures réponses BLANCHES (profondeur " + OPENING_DEPTH + ")...");
             writer.write("\n% Meilleures réponses Blanches (en réponse aux ouvertures noires)\n");
 
             for (String blackOpening : topBlackOpenings) {
                 String whiteResponse = findBestWhiteResponse(blackOpening);
                 writer.write("WHITE:" + blackOpening + ":" + whiteResponse + "\n");
-                System.out.println("  → " + blackOpening + " : " + whiteResponse);
+                Log.info("  → " + blackOpening + " : " + whiteResponse);
             }
-            System.out.println("✓ " + topBlackOpenings.size() + " réponses Blanches calculées");
+            Log.info("✓ " + topBlackOpenings.size() + " réponses Blanches calculées");
 
         } catch (IOException e) {
-            System.err.println("Erreur lors de l'écriture du fichier : " + e.getMessage());
+            Log.error("Erreur lors de l'écriture du fichier : " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -73,43 +74,46 @@ public class OpeningGenerator {
      * @return liste des x meilleures ouvertures Noires
      */
     private ArrayList<String> findTopBlackOpenings() {
-        // Créer un plateau vide
-        EscampeBoard emptyBoard = new EscampeBoard();
-        emptyBoard.clearBoard();
+        // Les placements Noirs (lignes 1-2) sont parcourus par l'énumérateur, sans construire la liste
+        PlacementEnumerator blackPlacements = new PlacementEnumerator(true);
 
-        // Obtenir tous les placements possibles pour les Noirs
-        ArrayList<EscampeMove> blackPlacements = emptyBoard.possibleMoves(EscampeRole.BLACK);
-
-        System.out.println("  Évaluation de " + blackPlacements.size() + " placements Noirs avec AlphaBeta...");
+        Log.info("  Évaluation de " + PlacementEnumerator.PLACEMENTS_PER_HALF + " placements Noirs avec AlphaBeta...");
 
         // Créer l'IA Noire avec AlphaBeta
         AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> algorithm =
             new AlphaBeta<>(EscampeRole.BLACK, EscampeRole.WHITE, EscampeHeuristics.hBlack, OPENING_DEPTH);
         AIPlayer<EscampeMove, EscampeRole, EscampeBoard> blackAI = new AIPlayer<>(EscampeRole.BLACK, algorithm);
 
-        // Évaluer chaque placement Noir avec AlphaBeta
-        Map<String, Integer> placementScores = new HashMap<>();
+        // Évaluer chaque placement Noir, le score est rangé au rang du placement
+        int[] placementScores = new int[PlacementEnumerator.PLACEMENTS_PER_HALF];
+        EscampeBoard testBoard = new EscampeBoard();
+        testBoard.clearBoard();
 
-        for (EscampeMove blackMove : blackPlacements) {
-            EscampeBoard testBoard = new EscampeBoard();
-            testBoard.clearBoard();
-            testBoard.playVoid(blackMove, EscampeRole.BLACK);
+        while (blackPlacements.next()) {
+            EscampeMove blackMove = EscampeMove.fromPlacementCode(blackPlacements.code());
+            testBoard.makeMove(blackMove, EscampeRole.BLACK);
 
             // Utiliser l'heuristique pour évaluer la position après placement
             // (on ne peut pas utiliser bestMove car les Blancs n'ont pas encore placé)
             int score = EscampeHeuristics.hBlack.eval(testBoard, EscampeRole.BLACK);
-            placementScores.put(blackMove.toString(), score);
+            placementScores[blackPlacements.index()] = score;
+            testBoard.unmakeMove();
 
-            System.out.println("    " + blackMove + " → score: " + score);
+            if (Log.isEnabled(Log.Level.DEBUG)) {
+                Log.debug("    " + blackMove + " → score: " + score);
+            }
         }
 
-        // Trier et retourner les TOP_N meilleures
-        ArrayList<Map.Entry<String, Integer>> sortedEntries = new ArrayList<>(placementScores.entrySet());
-        sortedEntries.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue())); // Tri décroissant
+        // Trier les rangs par score décroissant (à score égal, dans l'ordre de l'énumération) et retourner les TOP_N
+        ArrayList<Integer> ranks = new ArrayList<>(placementScores.length);
+        for (int rank = 0; rank < placementScores.length; rank++) {
+            ranks.add(rank);
+        }
+        ranks.sort((r1, r2) -> Integer.compare(placementScores[r2], placementScores[r1])); // Tri décroissant
 
         ArrayList<String> topOpenings = new ArrayList<>();
-        for (int i = 0; i < Math.min(TOP_N_OPENINGS, sortedEntries.size()); i++) {
-            topOpenings.add(sortedEntries.get(i).getKey());
+        for (int i = 0; i < Math.min(TOP_N_OPENINGS, ranks.size()); i++) {
+            topOpenings.add(EscampeMove.fromPlacementCode(PlacementEnumerator.codeAt(true, ranks.get(i))).toString());
         }
 
         return topOpenings;
@@ -125,7 +129,7 @@ public class OpeningGenerator {
         // Créer un plateau avec le placement Noir
         EscampeBoard board = new EscampeBoard();
         board.clearBoard();
-        EscampeMove blackMove = new EscampeMove(blackOpening);
+        EscampeMove blackMove = EscampeMove.parse(blackOpening);
         board.playVoid(blackMove, EscampeRole.BLACK);
 
         // Créer l'IA Blanche avec AlphaBeta
@@ -0,0 +1,94 @@
+package games.escampe;
+
+import iialib.games.algs.algorithms.AlphaBeta;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Mesure l'accélération de la recherche AlphaBeta parallèle à la racine.
+ * Les mêmes positions (tirées au hasard avec une graine fixe) sont cherchées à profondeur fixe
+ * avec 1, 2, 4 et 8 threads ; le programme affiche le temps, les nœuds, l'accélération
+ * et vérifie que les coups choisis sont identiques à ceux de la recherche séquentielle.
+ *
+ * Usage : ParallelSpeedup [profondeur] [nombre de positions]
+ */
+public class ParallelSpeedup {
+
+    private static final int[] THREADS = {1, 2, 4, 8};
+    private static final long SEED = 2024L;
+    private static final int RANDOM_PLIES = 8; // Coups joués au hasard après les placements
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int positionCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        ArrayList<EscampeBoard> positions = new ArrayList<>();
+        ArrayList<EscampeRole> sides = new ArrayList<>();
+        generatePositions(positionCount, positions, sides);
+
+        System.out.println("=== Accélération de la recherche parallèle (profondeur " + depth + ", "
+                           + positions.size() + " positions, " + Runtime.getRuntime().availableProcessors() + " cœurs) ===");
+        System.out.println(String.format("%8s %10s %12s %10s %s", "threads", "ms", "nœuds", "accél.", "coups"));
+
+        EscampeMove[] reference = null;
+        long referenceTime = 0;
+        for (int threads : THREADS) {
+            EscampeMove[] chosen = new EscampeMove[positions.size()];
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < positions.size(); i++) {
+                EscampeRole side = sides.get(i);
+                EscampeRole opponent = side == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+                AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> algorithm = new AlphaBeta<>(side, opponent,
+                        side == EscampeRole.WHITE ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack, depth);
+                algorithm.setParallelism(threads);
+                chosen[i] = algorithm.bestMove(positions.get(i), side);
+                nodes += algorithm.getNbNodes();
+                algorithm.setParallelism(1); // Libère le pool de threads
+            }
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+            String check;
+            if (reference == null) {
+                reference = chosen;
+                referenceTime = Math.max(1, elapsed);
+                check = "référence";
+            } else {
+                int differences = 0;
+                for (int i = 0; i < chosen.length; i++) {
+                    if (!chosen[i].equals(reference[i])) differences++;
+                }
+                check = differences == 0 ? "identiques" : differences + " différent(s)";
+            }
+            System.out.println(String.format("%8d %10d %12d %10.2f %s", threads, elapsed, nodes,
+                                             (double) referenceTime / Math.max(1, elapsed), check));
+        }
+    }
+
+    /**
+     * Génère des positions de milieu de partie : placements puis quelques coups tirés au hasard
+     */
+    static void generatePositions(int count, ArrayList<EscampeBoard> positions, ArrayList<EscampeRole> sides) {
+        Random random = new Random(SEED);
+        while (positions.size() < count) {
+            EscampeBoard board = new EscampeBoard();
+            board.clearBoard();
+            ArrayList<EscampeMove> placements = board.possibleMoves(EscampeRole.BLACK);
+            board.playVoid(placements.get(random.nextInt(placements.size())), EscampeRole.BLACK);
+            placements = board.possibleMoves(EscampeRole.WHITE);
+            board.playVoid(placements.get(random.nextInt(placements.size())), EscampeRole.WHITE);
+
+            EscampeRole side = EscampeRole.BLACK;
+            for (int ply = 0; ply < RANDOM_PLIES && !board.isGameOver(); ply++) {
+                ArrayList<EscampeMove> moves = board.possibleMoves(side);
+                board.playVoid(moves.isEmpty() ? EscampeMove.PASS : moves.get(random.nextInt(moves.size())), side);
+                side = side == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+            }
+            if (!board.isGameOver() && !board.possibleMoves(side).isEmpty()) {
+                positions.add(board);
+                sides.add(side);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package games.escampe;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Perft : compte les feuilles de l'arbre des coups jusqu'à une profondeur donnée, pour vérifier et mesurer
+ * la génération de coups d'EscampeBoard indépendamment de la recherche.
+ *
+ * Conventions : un joueur sans coup passe (le passage compte pour un coup), une position où une licorne a été
+ * prise n'a pas de successeur. Au dernier pas, les coups sont comptés sans être joués (comptage groupé).
+ *
+ * Usage :
+ *   Perft <plateau.txt> <blanc|noir> <liseré 0-3> <profondeur> [divide] [threads=N] [nobulk]
+ *   Perft reference      (vérifie les valeurs de référence ci-dessous)
+ */
+public class Perft {
+
+    /**
+     * Positions de référence : placement noir, placement blanc, joueur au trait, contrainte de liseré,
+     * puis les nombres de feuilles aux profondeurs 1, 2, 3 ... (relevés avec la génération actuelle)
+     */
+    private static final Object[][] REFERENCE = {
+        {"C1/A1/B2/D2/E1/F2", "F5/C5/D5/E5/A6/F6", EscampeRole.WHITE, 0, new long[]{18, 122, 656, 4193, 21701, 137394, 893866, 4724247}},
+        {"C1/A1/B2/D2/E1/F2", "F5/C5/D5/E5/A6/F6", EscampeRole.BLACK, 0, new long[]{16, 120, 735, 3622, 18119, 97813, 650092, 4554187}},
+        {"A1/B1/C1/D1/E1/F1", "A6/B5/C6/D5/E6/F5", EscampeRole.WHITE, 0, new long[]{23, 85, 883, 2708, 25214, 89741, 769557, 3791057}},
+        {"D2/A1/C2/B1/E2/F1", "C5/A6/B5/D6/E5/F6", EscampeRole.BLACK, 2, new long[]{5, 39, 101, 261, 464, 1978, 16268, 116243}},
+    };
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        if (args.length == 1 && args[0].equals("reference")) {
+            System.exit(checkReference() ? 0 : 1);
+        }
+        if (args.length < 4) {
+            System.out.println("Usage : Perft <plateau.txt> <blanc|noir> <liseré 0-3> <profondeur> [divide] [threads=N] [nobulk]");
+            System.out.println("        Perft reference");
+            return;
+        }
+
+        EscampeBoard board = new EscampeBoard();
+        board.setFromFile(args[0]);
+        EscampeRole side = parseRole(args[1]);
+        board.setNextMoveConstraint(Integer.parseInt(args[2]));
+        int depth = Integer.parseInt(args[3]);
+
+        boolean divide = false;
+        boolean bulk = true;
+        int threads = 1;
+        for (int i = 4; i < args.length; i++) {
+            if (args[i].equals("divide")) divide = true;
+            else if (args[i].equals("nobulk")) bulk = false;
+            else if (args[i].startsWith("threads=")) threads = Integer.parseInt(args[i].substring("threads=".length()));
+            else throw new IllegalArgumentException("Option inconnue : " + args[i]);
+        }
+
+        // Une ligne par profondeur, avec la vitesse
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long[] perMove = perftRoot(board, side, d, bulk, threads);
+            long elapsed = System.nanoTime() - start;
+            long nodes = 0;
+            for (long count : perMove) nodes += count;
+            System.out.println(String.format("profondeur %2d : %,15d feuilles  %8d ms  %,13d feuilles/s",
+                               d, nodes, elapsed / 1_000_000, (long) (nodes * 1e9 / Math.max(1, elapsed))));
+
+            if (divide && d == depth) {
+                ArrayList<EscampeMove> moves = rootMoves(board, side);
+                for (int i = 0; i < moves.size(); i++) {
+                    System.out.println("  " + moves.get(i) + " : " + perMove[i]);
+                }
+            }
+        }
+    }
+
+    /** Compte les feuilles sous chaque coup de la racine, en répartissant les coups entre plusieurs threads
+     * @param board la position (non modifiée)
+     * @param side le joueur au trait
+     * @param depth la profondeur (au moins 1)
+     * @param bulk compter les coups du dernier pas sans les jouer
+     * @param threads nombre de threads
+     * @return le nombre de feuilles sous chaque coup, dans l'ordre de rootMoves
+     */
+    static long[] perftRoot(EscampeBoard board, EscampeRole side, int depth, boolean bulk, int threads)
+            throws InterruptedException, ExecutionException {
+        ArrayList<EscampeMove> moves = rootMoves(board, side);
+        long[] perMove = new long[moves.size()];
+        EscampeRole opponent = opponentOf(side);
+
+        if (threads <= 1) {
+            EscampeBoard copy = board.copy();
+            for (int i = 0; i < moves.size(); i++) {
+                copy.makeMove(moves.get(i), side);
+                perMove[i] = perft(copy, opponent, depth - 1, bulk);
+                copy.unmakeMove();
+            }
+            return perMove;
+        }
+
+        // Chaque coup de la racine sur sa propre copie du plateau
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, moves.size()).parallel().forEach(i -> {
+                EscampeBoard copy = board.copy();
+                copy.makeMove(moves.get(i), side);
+                perMove[i] = perft(copy, opponent, depth - 1, bulk);
+            })).get();
+        } finally {
+            pool.shutdown();
+        }
+        return perMove;
+    }
+
+    /** Nombre de feuilles à la profondeur donnée
+     * @param board la position (rendue dans le même état)
+     * @param side le joueur au trait
+     * @param depth la profondeur restante
+     * @param bulk compter les coups du dernier pas sans les jouer
+     * @return le nombre de feuilles
+     */
+    static long perft(EscampeBoard board, EscampeRole side, int depth, boolean bulk) {
+        if (depth == 0) return 1;
+        if (board.isGameOver()) return 0; // Licorne prise : pas de successeur
+
+        if (depth == 1 && bulk) {
+            int count = board.countMoves(side);
+            return count == 0 ? 1 : count; // Sans coup, le joueur passe
+        }
+
+        EscampeRole opponent = opponentOf(side);
+        ArrayList<EscampeMove> moves = board.possibleMoves(side);
+        if (moves.isEmpty()) {
+            board.makeMove(EscampeMove.PASS, side);
+            long nodes = perft(board, opponent, depth - 1, bulk);
+            board.unmakeMove();
+            return nodes;
+        }
+
+        long nodes = 0;
+        for (EscampeMove move : moves) {
+            board.makeMove(move, side);
+            nodes += perft(board, opponent, depth - 1, bulk);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /** Vérifie les valeurs de référence, avec et sans comptage groupé, sur un et plusieurs threads
+     * @return vrai si toutes les valeurs sont retrouvées
+     */
+    static boolean checkReference() throws InterruptedException, ExecutionException {
+        boolean ok = true;
+        for (Object[] reference : REFERENCE) {
+            EscampeBoard board = new EscampeBoard();
+            board.clearBoard();
+            board.playVoid(EscampeMove.parse((String) reference[0]), EscampeRole.BLACK);
+            board.playVoid(EscampeMove.parse((String) reference[1]), EscampeRole.WHITE);
+            board.setNextMoveConstraint((Integer) reference[3]);
+            EscampeRole side = (EscampeRole) reference[2];
+            long[] expected = (long[]) reference[4];
+
+            for (int d = 1; d <= expected.length; d++) {
+                long bulkNodes = sum(perftRoot(board, side, d, true, 1));
+                long fullNodes = d <= 4 ? sum(perftRoot(board, side, d, false, 1)) : bulkNodes;
+                long parallelNodes = sum(perftRoot(board, side, d, true, Runtime.getRuntime().availableProcessors()));
+                boolean match = bulkNodes == expected[d - 1] && fullNodes == bulkNodes && parallelNodes == bulkNodes;
+                ok &= match;
+                System.out.println((match ? "OK     " : "ÉCHEC  ") + reference[0] + " " + reference[1] + " " + side
+                                   + " liseré " + reference[3] + " profondeur " + d + " : " + bulkNodes
+                                   + (match ? "" : " (attendu " + expected[d - 1] + ")"));
+            }
+        }
+        return ok;
+    }
+
+    // --------------------- Méthodes internes ---------------------
+
+    /** Coups de la racine : les coups possibles, ou le passage s'il n'y en a aucun */
+    private static ArrayList<EscampeMove> rootMoves(EscampeBoard board, EscampeRole side) {
+        ArrayList<EscampeMove> moves = board.isGameOver() ? new ArrayList<>() : board.possibleMoves(side);
+        if (moves.isEmpty() && !board.isGameOver()) moves.add(EscampeMove.PASS);
+        return moves;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) total += count;
+        return total;
+    }
+
+    private static EscampeRole opponentOf(EscampeRole side) {
+        return side == EscampeRole.WHITE ? EscampeRole.BLACK : EscampeRole.WHITE;
+    }
+
+    private static EscampeRole parseRole(String side) {
+        switch (side.toLowerCase()) {
+            case "blanc": case "white": case "b": return EscampeRole.WHITE;
+            case "noir": case "black": case "n": return EscampeRole.BLACK;
+            default: throw new IllegalArgumentException("Joueur inconnu (blanc ou noir) : " + side);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package games.escampe;
+
+/**
+ * Énumère les placements d'une moitié du plateau (lignes 1-2 ou lignes 5-6) sans allocation :
+ * 12 cases pour la licorne, puis les C(11,5) = 462 choix des 5 paladins parmi les 11 cases restantes,
+ * soit 5544 placements.
+ *
+ * Les 5 paladins sont obtenus avec l'astuce de Gosper sur des masques de 11 bits : on parcourt les 6 cases laissées
+ * vides dans l'ordre croissant des masques, et le complément renversé donne les paladins dans l'ordre lexicographique
+ * des cases (l'ordre historique de generateAllPlacements). L'ordre croissant des masques étant celui du système
+ * combinatoire, chaque placement a un rang (0-5543) calculable dans les deux sens.
+ *
+ * Usage : while (enumerator.next()) { ... enumerator.unicornIndex(), enumerator.paladinsMask() ... }
+ */
+public final class PlacementEnumerator {
+
+    // ------------ Constantes ------------
+
+    /** Nombre de choix des paladins pour une position de la licorne : C(11,5) */
+    public static final int COMBINATIONS = 462;
+
+    /** Nombre de placements dans une moitié du plateau */
+    public static final int PLACEMENTS_PER_HALF = 12 * COMBINATIONS;
+
+    private static final int HALF_SQUARES = 12;
+    private static final int OTHER_SQUARES = 11; // Cases restantes une fois la licorne posée
+    private static final int ALL_OTHER = (1 << OTHER_SQUARES) - 1;
+    private static final int FIRST_EMPTY_SET = 0x3F; // Les 6 cases les plus basses : premier ensemble dans l'ordre croissant
+    private static final int LAST_EMPTY_SET = FIRST_EMPTY_SET << (OTHER_SQUARES - 6);
+    private static final int BOTTOM_BASE = 24; // Première case des lignes 5-6
+
+    /** BINOMIAL[n][k] = C(n, k) pour n <= 11, k <= 6 */
+    private static final int[][] BINOMIAL = new int[OTHER_SQUARES + 1][7];
+
+    static {
+        for (int n = 0; n <= OTHER_SQUARES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, 6); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    // ------------ Attributs ------------
+
+    private final int base; // Première case de la moitié (0 ou 24)
+    private int unicorn; // Case de la licorne dans la moitié (0-11)
+    private int emptySet; // Les 6 cases vides parmi les 11 restantes (0 avant le premier placement)
+
+    /**
+     * @param topHalf vrai pour les lignes 1-2, faux pour les lignes 5-6
+     */
+    public PlacementEnumerator(boolean topHalf) {
+        this.base = topHalf ? 0 : BOTTOM_BASE;
+    }
+
+    // ------------ Parcours ------------
+
+    /** Passe au placement suivant
+     * @return faux quand tous les placements ont été parcourus
+     */
+    public boolean next() {
+        if (unicorn >= HALF_SQUARES) return false;
+        if (emptySet == 0) {
+            emptySet = FIRST_EMPTY_SET;
+        } else if (emptySet == LAST_EMPTY_SET) {
+            if (++unicorn == HALF_SQUARES) return false;
+            emptySet = FIRST_EMPTY_SET;
+        } else {
+            emptySet = nextSubset(emptySet);
+        }
+        return true;
+    }
+
+    /** Revient avant le premier placement */
+    public void reset() {
+        unicorn = 0;
+        emptySet = 0;
+    }
+
+    /** @return la case de la licorne du placement courant (0-35) */
+    public int unicornIndex() {
+        return base + unicorn;
+    }
+
+    /** @return le masque des 5 paladins du placement courant */
+    public long paladinsMask() {
+        return paladinsMask(base, unicorn, emptySet);
+    }
+
+    /** @return le placement courant, codé comme EscampeMove.getCode() */
+    public long code() {
+        return EscampeMove.placementCode(unicornIndex(), paladinsMask());
+    }
+
+    /** @return le rang du placement courant (0-5543) */
+    public int index() {
+        return unicorn * COMBINATIONS + rankSubset(emptySet);
+    }
+
+    // ------------ Rang ------------
+
+    /** Retourne le placement d'un rang donné (accès direct, sans parcours)
+     * @param topHalf vrai pour les lignes 1-2, faux pour les lignes 5-6
+     * @param index le rang (0-5543)
+     * @return le placement, codé comme EscampeMove.getCode()
+     */
+    public static long codeAt(boolean topHalf, int index) {
+        if (index < 0 || index >= PLACEMENTS_PER_HALF) {
+            throw new IllegalArgumentException("Rang de placement invalide : " + index);
+        }
+        int base = topHalf ? 0 : BOTTOM_BASE;
+        int unicorn = index / COMBINATIONS;
+        return EscampeMove.placementCode(base + unicorn, paladinsMask(base, unicorn, unrankSubset(index % COMBINATIONS)));
+    }
+
+    /** Retourne le rang d'un placement dans sa moitié du plateau
+     * @param unicornIndex la case de la licorne (0-35)
+     * @param paladinsMask le masque des 5 paladins
+     * @return le rang (0-5543), ou -1 si ce n'est pas un placement d'une seule moitié
+     */
+    public static int indexOf(int unicornIndex, long paladinsMask) {
+        int base = unicornIndex < HALF_SQUARES ? 0 : BOTTOM_BASE;
+        int unicorn = unicornIndex - base;
+        if (unicorn < 0 || unicorn >= HALF_SQUARES) return -1;
+        long local = paladinsMask >>> base;
+        if ((local & ~0xFFFL) != 0 || (paladinsMask & ((1L << base) - 1)) != 0
+            || Long.bitCount(local) != 5 || (local & (1L << unicorn)) != 0) return -1;
+
+        int paladins = (int) local;
+        int compressed = (paladins & ((1 << unicorn) - 1)) | ((paladins >>> (unicorn + 1)) << unicorn); // Retire la case de la licorne
+        int emptySet = ~reverse(compressed) & ALL_OTHER;
+        return unicorn * COMBINATIONS + rankSubset(emptySet);
+    }
+
+    // --------------------- Méthodes internes ---------------------
+
+    /** Astuce de Gosper : plus petit entier supérieur ayant le même nombre de bits */
+    private static int nextSubset(int x) {
+        int lowest = x & -x;
+        int ripple = x + lowest;
+        return ripple | (((x ^ ripple) >>> 2) / lowest);
+    }
+
+    /** Renverse l'ordre des 11 bits */
+    private static int reverse(int x) {
+        return Integer.reverse(x) >>> (32 - OTHER_SQUARES);
+    }
+
+    /** Paladins : complément renversé des cases vides, réinséré autour de la case de la licorne */
+    private static long paladinsMask(int base, int unicorn, int emptySet) {
+        int compressed = reverse(~emptySet & ALL_OTHER);
+        int paladins = (compressed & ((1 << unicorn) - 1)) | ((compressed >>> unicorn) << (unicorn + 1));
+        return (long) paladins << base;
+    }
+
+    /** Rang d'un ensemble de 6 cases dans l'ordre croissant des masques (système combinatoire) */
+    private static int rankSubset(int set) {
+        int rank = 0;
+        int k = 1;
+        while (set != 0) {
+            rank += BINOMIAL[Integer.numberOfTrailingZeros(set)][k++];
+            set &= set - 1;
+        }
+        return rank;
+    }
+
+    /** Ensemble de 6 cases d'un rang donné */
+    private static int unrankSubset(int rank) {
+        int set = 0;
+        int bit = OTHER_SQUARES;
+        for (int k = 6; k >= 1; k--) {
+            do {
+                bit--;
+            } while (BINOMIAL[bit][k] > rank);
+            set |= 1 << bit;
+            rank -= BINOMIAL[bit][k];
+        }
+        return set;
+    }
+}
@@ -0,0 +1,135 @@
+package games.escampe;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Source des coups de placement pour EscampeBoard.possibleMoves.
+ *
+ * Le livre d'ouvertures (openings.txt) est lu une seule fois par processus et indexé dans un instantané immuable :
+ * pour chaque (joueur, moitié occupée par l'adversaire), la liste des placements du livre valides dans ce cas,
+ * ou tous les placements si le livre n'en a aucun. La génération de coups ne fait plus aucune lecture disque :
+ * la date de modification du fichier est seulement consultée une fois par seconde au plus, et l'instantané
+ * est reconstruit si le fichier a changé (par exemple quand OpeningGenerator le réécrit).
+ */
+final class PlacementSource {
+
+    // ------------ Constantes ------------
+
+    private static final String OPENINGS_FILE = ".\\data\\openings.txt";
+    private static final long RELOAD_CHECK_NANOS = 1_000_000_000L; // Intervalle minimal entre deux vérifications du fichier
+
+    // Moitié du plateau occupée par l'adversaire
+    private static final int OPPONENT_NONE = 0, OPPONENT_TOP = 1, OPPONENT_BOTTOM = 2;
+    private static final long TOP_ROWS = 0xFFFL; // Lignes 1-2
+    private static final long BOTTOM_ROWS = 0xFFFL << 24; // Lignes 5-6
+
+    private static final PlacementSource DEFAULT = new PlacementSource(new File(OPENINGS_FILE));
+
+    // ------------ Attributs ------------
+
+    private final File file;
+    private volatile Snapshot snapshot; // Remplacé en bloc lors d'un rechargement
+    private volatile long nextCheck; // System.nanoTime() de la prochaine vérification du fichier
+
+    /** Listes de placements d'une version du fichier, indexées par joueur et moitié adverse */
+    private static final class Snapshot {
+        final long lastModified; // 0 si le fichier n'existe pas
+        final List<List<EscampeMove>> placements; // index = joueur * 3 + moitié adverse
+
+        Snapshot(long lastModified, List<List<EscampeMove>> placements) {
+            this.lastModified = lastModified;
+            this.placements = placements;
+        }
+    }
+
+    PlacementSource(File file) {
+        this.file = file;
+    }
+
+    /** @return la source partagée, lue depuis data/openings.txt */
+    static PlacementSource getDefault() {
+        return DEFAULT;
+    }
+
+    // ------------ Accès ------------
+
+    /** Retourne les placements possibles pour un joueur qui n'a pas encore posé ses pièces
+     * @param player le joueur qui place
+     * @param opponent les pièces adverses déjà posées (0 si aucune)
+     * @return une nouvelle liste (l'appelant peut la modifier)
+     */
+    ArrayList<EscampeMove> placements(EscampeRole player, long opponent) {
+        int half = opponent == 0L ? OPPONENT_NONE : ((opponent & TOP_ROWS) != 0 ? OPPONENT_TOP : OPPONENT_BOTTOM);
+        int side = player == EscampeRole.WHITE ? 1 : 0;
+        return new ArrayList<>(current().placements.get(side * 3 + half));
+    }
+
+    // ------------ Chargement ------------
+
+    /** Instantané à jour : le fichier n'est consulté qu'une fois par intervalle, et relu seulement s'il a changé */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        long now = System.nanoTime();
+        if (current == null || now - nextCheck >= 0) {
+            nextCheck = now + RELOAD_CHECK_NANOS;
+            long lastModified = file.lastModified(); // 0 si absent
+            if (current == null || lastModified != current.lastModified) {
+                current = load(lastModified);
+                snapshot = current;
+            }
+        }
+        return current;
+    }
+
+    /** Lit le livre et construit les listes des 6 cas (joueur x moitié adverse) */
+    private Snapshot load(long lastModified) {
+        ArrayList<EscampeMove> book = readBook();
+
+        long[] opponents = {0L, TOP_ROWS, BOTTOM_ROWS}; // Une occupation représentative de chaque moitié
+        List<List<EscampeMove>> placements = new ArrayList<>(6);
+        for (EscampeRole player : new EscampeRole[]{EscampeRole.BLACK, EscampeRole.WHITE}) {
+            for (long opponent : opponents) {
+                ArrayList<EscampeMove> moves = new ArrayList<>();
+                for (EscampeMove move : book) {
+                    if (EscampeBoard.isValidPlacement(move, 0L, opponent)) moves.add(move);
+                }
+                if (moves.isEmpty()) { // Aucun placement du livre ici : tous les placements valides
+                    moves = EscampeBoard.generateAllPlacements(player, opponent);
+                }
+                placements.add(Collections.unmodifiableList(moves));
+            }
+        }
+        return new Snapshot(lastModified, Collections.unmodifiableList(placements));
+    }
+
+    /** Lit les placements du livre, sans doublon et dans l'ordre du fichier.
+     * Lignes acceptées : "placement", "BLACK:placement" et "WHITE:placementNoir:réponse" (la réponse est retenue)
+     */
+    private ArrayList<EscampeMove> readBook() {
+        LinkedHashSet<EscampeMove> book = new LinkedHashSet<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("%")) continue; // Ignore les lignes vides ou commentaires
+                String placement = line.substring(line.lastIndexOf(':') + 1);
+                try {
+                    EscampeMove move = EscampeMove.parse(placement);
+                    if (move.isPlacement()) book.add(move);
+                } catch (IllegalArgumentException e) {
+                    // Ligne mal formée : ignorée
+                }
+            }
+        } catch (IOException e) {
+            // Fichier n'existe pas ou erreur - on va générer tous les placements possibles
+        }
+        return new ArrayList<>(book);
+    }
+}
@@ -0,0 +1,128 @@
+package games.escampe;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compare trois façons de savoir quelles cases une pièce atteint, sur des occupations aléatoires :
+ * - le parcours des chemins pré-calculés entre chaque paire de cases (l'ancien PATH_CACHE),
+ * - la propagation par bitboards (EscampeBoard.computeReachableSquares),
+ * - la lecture dans les tables d'atteignabilité (EscampeBoard.reachableSquares).
+ * Le programme vérifie d'abord que les trois donnent les mêmes cases, puis affiche les temps.
+ *
+ * Usage : ReachabilityBenchmark [nombre d'occupations]
+ */
+public class ReachabilityBenchmark {
+
+    private static final long SEED = 36L;
+    private static final int ROUNDS = 5; // Les mesures sont répétées, la première sert de chauffe
+
+    /** Chemins de chaque paire (from, to) : masques des cases traversées (ancien PATH_CACHE, null si impossible) */
+    private static final long[][][] PATHS = new long[36][36][];
+
+    public static void main(String[] args) {
+        int occupancyCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        precomputePaths();
+
+        // Occupations aléatoires de 8 à 12 pièces, avec une pièce sur la case de départ
+        Random random = new Random(SEED);
+        long[] occupancies = new long[occupancyCount];
+        int[] squares = new int[occupancyCount];
+        for (int i = 0; i < occupancyCount; i++) {
+            int from = random.nextInt(36);
+            long occupancy = 1L << from;
+            int pieces = 8 + random.nextInt(5);
+            while (Long.bitCount(occupancy) < pieces) occupancy |= 1L << random.nextInt(36);
+            occupancies[i] = occupancy;
+            squares[i] = from;
+        }
+
+        // Vérification
+        for (int i = 0; i < occupancyCount; i++) {
+            long scan = pathScan(squares[i], occupancies[i]);
+            long flood = EscampeBoard.computeReachableSquares(squares[i], occupancies[i]);
+            long table = EscampeBoard.reachableSquares(squares[i], occupancies[i]);
+            if (scan != flood || flood != table) {
+                throw new IllegalStateException("Résultats différents pour la case " + squares[i]
+                                                + " et l'occupation " + Long.toHexString(occupancies[i]));
+            }
+        }
+        System.out.println("=== Atteignabilité : " + occupancyCount + " occupations, résultats identiques ===");
+        System.out.println(String.format("%6s %14s %14s %14s", "tour", "chemins ns", "propagation ns", "table ns"));
+
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < occupancyCount; i++) sink += pathScan(squares[i], occupancies[i]);
+            long scanTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < occupancyCount; i++) sink += EscampeBoard.computeReachableSquares(squares[i], occupancies[i]);
+            long floodTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < occupancyCount; i++) sink += EscampeBoard.reachableSquares(squares[i], occupancies[i]);
+            long tableTime = System.nanoTime() - start;
+
+            System.out.println(String.format("%6d %14.1f %14.1f %14.1f", round, (double) scanTime / occupancyCount,
+                                             (double) floodTime / occupancyCount, (double) tableTime / occupancyCount));
+        }
+        System.out.println("(" + sink + ")"); // Empêche l'élimination des boucles
+    }
+
+    /** Cases atteignables en parcourant les chemins vers chacune des 36 cases */
+    private static long pathScan(int from, long allPieces) {
+        long reach = 0L;
+        for (int to = 0; to < 36; to++) {
+            long[] paths = PATHS[from][to];
+            if (paths == null) continue;
+            for (long pathMask : paths) {
+                if ((pathMask & allPieces) == 0) {
+                    reach |= 1L << to;
+                    break;
+                }
+            }
+        }
+        return reach;
+    }
+
+    /** Pré-calcul des chemins entre chaque paire de cases, de la longueur du liseré de départ */
+    private static void precomputePaths() {
+        for (int from = 0; from < 36; from++) {
+            int dist = EscampeBoard.getLisereType(from);
+            for (int to = 0; to < 36; to++) {
+                if (from == to) continue;
+                ArrayList<Long> pathsFound = new ArrayList<>();
+                findPathsRecursive(from, to, dist, 0L, pathsFound);
+                if (!pathsFound.isEmpty()) {
+                    long[] masks = new long[pathsFound.size()];
+                    for (int i = 0; i < masks.length; i++) masks[i] = pathsFound.get(i);
+                    PATHS[from][to] = masks;
+                }
+            }
+        }
+    }
+
+    /** Recherche récursive des chemins : le masque contient les cases traversées (ni la case d'arrivée, ni le départ au premier pas) */
+    private static void findPathsRecursive(int currentCase, int target, int stepsLeft, long currentPathMask, ArrayList<Long> results) {
+        int cx = currentCase % 6, cy = currentCase / 6;
+        int tx = target % 6, ty = target / 6;
+        int manhattan = Math.abs(cx - tx) + Math.abs(cy - ty);
+        if (manhattan > stepsLeft || (manhattan % 2) != (stepsLeft % 2)) return;
+
+        int[] moves = {-6, 6, -1, 1};
+        for (int move : moves) {
+            int next = currentCase + move;
+            if (next < 0 || next > 35) continue;
+            if (Math.abs(move) == 1 && (currentCase / 6 != next / 6)) continue;
+
+            long nextBit = 1L << next;
+            if ((currentPathMask & nextBit) != 0) continue;
+            if (stepsLeft == 1) {
+                if (next == target) results.add(currentPathMask);
+            } else if (next != target) {
+                findPathsRecursive(next, target, stepsLeft - 1, currentPathMask | nextBit, results);
+            }
+        }
+    }
+}
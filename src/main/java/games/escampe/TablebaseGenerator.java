@@ -0,0 +1,291 @@
+package games.escampe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+/**
+ * Génère les tables de finales d'EscampeTablebase par analyse rétrograde, pour tous les matériels d'au plus
+ * N paladins au total (au moins un par camp).
+ *
+ * Le passage p trouve les positions dont la distance est exactement p demi-coups :
+ * - p = 1 : le joueur au trait peut prendre la licorne adverse
+ * - p impair : un coup mène à une position perdue en p - 1 pour l'adversaire
+ * - p pair : tous les coups (ou le passage, sans coup) mènent à des positions gagnées par l'adversaire
+ * Les positions encore inconnues quand un passage ne trouve plus rien sont nulles. Chaque passage est partagé
+ * entre les threads par tranches d'index ; il n'écrit que la distance p et ne lit que des distances inférieures,
+ * les threads n'ont donc pas à se synchroniser.
+ *
+ * Les valeurs sont gardées sur un octet par index pendant la génération (par blocs d'un Go, index long), et
+ * sauvées après un passage si la dernière sauvegarde date de plus d'une minute : une génération interrompue
+ * reprend au passage suivant. Une table doit donc tenir dans le tas : w1b2 demande 235 Mo, w1b3 2,7 Go, w2b2
+ * 4,1 Go, w2b3 47 Go. Les matériels trop grands pour le tas (ou au-delà d'EscampeTablebase.MAX_PALADINS par
+ * camp) sont sautés avec un message ; en pratique la limite est de quatre paladins au total.
+ *
+ * Usage : TablebaseGenerator [paladins max] [threads] [répertoire]
+ */
+public class TablebaseGenerator {
+
+    private static final int CHUNK = 1 << 16; // Index par tâche
+    private static final long CHECKPOINT_INTERVAL_MS = 60_000;
+    private static final int CHECKPOINT_MAGIC = 0x45544243; // "ETBC"
+    private static final int MAX_DISTANCE = 255; // Une valeur par octet pendant la génération
+    private static final int BLOCK_BITS = 30; // Octets par bloc de valeurs
+    private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+    private static final long MEMORY_MARGIN = 64L << 20; // Tas gardé libre en plus des valeurs
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int maxPaladins = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path directory = Paths.get(args.length > 2 ? args[2] : "data/tablebases");
+        Files.createDirectories(directory);
+
+        for (int total = 2; total <= maxPaladins; total++) {
+            for (int white = 1; white < total; white++) {
+                int black = total - white;
+                Path file = directory.resolve(EscampeTablebase.fileName(white, black));
+                if (Files.exists(file)) {
+                    System.out.println(file + " : déjà générée");
+                    continue;
+                }
+                if (white > EscampeTablebase.MAX_PALADINS || black > EscampeTablebase.MAX_PALADINS) {
+                    System.out.println(file + " : sautée, au plus " + EscampeTablebase.MAX_PALADINS + " paladins par camp");
+                    continue;
+                }
+                long size = EscampeTablebase.size(white, black);
+                long available = Runtime.getRuntime().maxMemory() - MEMORY_MARGIN; // Les tables précédentes sont libérables
+                if (size > available) {
+                    System.out.println(String.format("%s : sautée, %d Mo de valeurs pour %d Mo de tas disponibles (-Xmx)",
+                                                     file, size >> 20, Math.max(0, available) >> 20));
+                    continue;
+                }
+                generate(white, black, threads, file);
+            }
+        }
+    }
+
+    /** Génère la table d'un matériel, en reprenant la dernière sauvegarde s'il y en a une
+     */
+    static void generate(int white, int black, int threads, Path file) throws IOException, InterruptedException, ExecutionException {
+        if (white > EscampeTablebase.MAX_PALADINS || black > EscampeTablebase.MAX_PALADINS) {
+            throw new IllegalArgumentException("Table trop grande : " + white + " paladins blancs, " + black + " noirs");
+        }
+        long size = EscampeTablebase.size(white, black);
+        Path checkpoint = Paths.get(file + ".ckpt");
+
+        byte[][] values = allocate(size);
+        int pass = 1;
+        if (Files.exists(checkpoint)) {
+            pass = readCheckpoint(checkpoint, values, size, white, black) + 1;
+            System.out.println(file + " : reprise au passage " + pass);
+        } else {
+            System.out.println(file + " : " + size + " index, " + threads + " thread(s)");
+        }
+
+        long chunks = (size + CHUNK - 1) / CHUNK;
+        long lastCheckpoint = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (true) {
+                int distance = pass;
+                long start = System.nanoTime();
+                long found = pool.submit(() -> LongStream.range(0, chunks).parallel()
+                                                         .map(chunk -> solveChunk(values, size, white, black, distance, chunk))
+                                                         .sum()).get();
+                System.out.println(String.format("  passage %3d : %10d positions (%d ms)", pass, found,
+                                                 (System.nanoTime() - start) / 1_000_000));
+                if (found == 0) break;
+                if (pass == MAX_DISTANCE) throw new IllegalStateException("Distance supérieure à " + MAX_DISTANCE);
+
+                if (System.currentTimeMillis() - lastCheckpoint >= CHECKPOINT_INTERVAL_MS) {
+                    writeCheckpoint(checkpoint, values, size, white, black, pass);
+                    lastCheckpoint = System.currentTimeMillis();
+                }
+                pass++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        writeTable(file, values, size, white, black, pass - 1);
+        Files.deleteIfExists(checkpoint);
+        System.out.println(file + " : écrite, distance maximale " + (pass - 1));
+    }
+
+    // ---------------- Valeurs ----------------
+
+    /** Alloue les blocs de valeurs d'une table
+     */
+    private static byte[][] allocate(long size) {
+        byte[][] values = new byte[(int) ((size + BLOCK_MASK) >>> BLOCK_BITS)][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new byte[(int) Math.min(1L << BLOCK_BITS, size - ((long) i << BLOCK_BITS))];
+        }
+        return values;
+    }
+
+    private static int get(byte[][] values, long index) {
+        return values[(int) (index >>> BLOCK_BITS)][(int) (index & BLOCK_MASK)] & 0xFF;
+    }
+
+    private static void set(byte[][] values, long index, int value) {
+        values[(int) (index >>> BLOCK_BITS)][(int) (index & BLOCK_MASK)] = (byte) value;
+    }
+
+    // ---------------- Analyse rétrograde ----------------
+
+    /** Cherche les positions de distance exacte dans une tranche d'index
+     * @return le nombre de positions trouvées
+     */
+    private static long solveChunk(byte[][] values, long size, int white, int black, int distance, long chunk) {
+        EscampeBoard board = new EscampeBoard();
+        long whiteSets = EscampeTablebase.BINOMIALS[EscampeTablebase.SQUARES][white];
+        long blackSets = EscampeTablebase.BINOMIALS[EscampeTablebase.SQUARES][black];
+        long end = Math.min(size, (chunk + 1) * CHUNK);
+        long found = 0;
+        for (long index = chunk * CHUNK; index < end; index++) {
+            if (get(values, index) != 0) continue;
+
+            // Index -> position (voir EscampeTablebase.index)
+            int constraint = (int) (index & 3);
+            EscampeRole role = ((index >>> 2) & 1) == 0 ? EscampeRole.WHITE : EscampeRole.BLACK;
+            long rest = index >>> 3;
+            long blackPaladins = EscampeTablebase.unrank(rest % blackSets, black);
+            rest /= blackSets;
+            long whitePaladins = EscampeTablebase.unrank(rest % whiteSets, white);
+            rest /= whiteSets;
+            long blackUnicorn = 1L << (rest % EscampeTablebase.SQUARES);
+            long whiteUnicorn = 1L << (rest / EscampeTablebase.SQUARES);
+            if (Long.bitCount(whitePaladins | whiteUnicorn | blackPaladins | blackUnicorn) != white + black + 2) {
+                continue; // Pièces superposées
+            }
+
+            board.setPosition(whitePaladins, whiteUnicorn, blackPaladins, blackUnicorn, role, constraint);
+            if (hasDistance(board, role, values, white, black, distance)) {
+                set(values, index, distance);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /** Vrai si la position, encore inconnue, est gagnée (distance impaire) ou perdue (paire) en exactement distance
+     */
+    private static boolean hasDistance(EscampeBoard board, EscampeRole role, byte[][] values, int white, int black, int distance) {
+        boolean isWhite = role == EscampeRole.WHITE;
+        long movers = board.movers(role);
+        if (distance == 1) {
+            long unicorn = isWhite ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+            return board.unicornAttackers((isWhite ? board.getWhitePaladins() : board.getBlackPaladins()) & movers, unicorn) != 0L;
+        }
+
+        // Plus de prise possible ici (trouvée au premier passage) : le matériel des successeurs ne change pas
+        boolean winning = (distance & 1) == 1;
+        boolean anyMove = false;
+        for (; movers != 0; movers &= movers - 1) {
+            int from = Long.numberOfTrailingZeros(movers);
+            for (long destinations = board.destinations(from, isWhite); destinations != 0; destinations &= destinations - 1) {
+                anyMove = true;
+                int value = successorValue(board, role, EscampeMove.of(from, Long.numberOfTrailingZeros(destinations)), values, white, black);
+                if (winning ? value == distance - 1 : (value & 1) == 0) {
+                    return winning; // Gain trouvé, ou coup qui échappe à la défaite (nul, inconnu ou gagnant)
+                }
+            }
+        }
+        if (!anyMove) { // Sans coup, le joueur passe
+            int value = successorValue(board, role, EscampeMove.PASS, values, white, black);
+            if (winning ? value == distance - 1 : (value & 1) == 0) {
+                return winning;
+            }
+        }
+        return !winning;
+    }
+
+    private static int successorValue(EscampeBoard board, EscampeRole role, EscampeMove move, byte[][] values, int white, int black) {
+        board.makeMove(move, role);
+        long index = EscampeTablebase.index(white, black, board.getWhitePaladins(), board.getWhiteUnicorn(),
+                                            board.getBlackPaladins(), board.getBlackUnicorn(),
+                                            board.getCurrentTurn() == EscampeRole.WHITE, board.getNextMoveConstraint());
+        board.unmakeMove();
+        return get(values, index);
+    }
+
+    // ---------------- Fichiers ----------------
+
+    /** Écrit la table : en-tête puis valeurs sur bitsFor(maxDistance) bits, plus un octet de marge pour la lecture
+     */
+    private static void writeTable(Path file, byte[][] values, long size, int white, int black, int maxDistance) throws IOException {
+        int bits = EscampeTablebase.bitsFor(maxDistance);
+        ByteBuffer header = ByteBuffer.allocate(EscampeTablebase.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(EscampeTablebase.MAGIC).putInt(white).putInt(black).putInt(bits).putInt(maxDistance).putLong(size);
+
+        Path temporary = Paths.get(file + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 20)) {
+            out.write(header.array());
+            long buffer = 0L; // Bits en attente, les premiers dans les bits de poids faible
+            int pending = 0;
+            for (byte[] block : values) {
+                for (byte value : block) {
+                    buffer |= (long) (value & 0xFF) << pending;
+                    pending += bits;
+                    while (pending >= 8) {
+                        out.write((int) buffer);
+                        buffer >>>= 8;
+                        pending -= 8;
+                    }
+                }
+            }
+            if (pending > 0) out.write((int) buffer);
+            out.write(0);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Sauve les valeurs après un passage complet (écriture dans un fichier temporaire puis renommage)
+     */
+    private static void writeCheckpoint(Path checkpoint, byte[][] values, long size, int white, int black, int pass) throws IOException {
+        Path temporary = Paths.get(checkpoint + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 20))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(white);
+            out.writeInt(black);
+            out.writeInt(pass);
+            out.writeLong(size);
+            for (byte[] block : values) {
+                out.write(block);
+            }
+        }
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Relit une sauvegarde
+     * @return le dernier passage complet
+     */
+    private static int readCheckpoint(Path checkpoint, byte[][] values, long size, int white, int black) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint), 1 << 20))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != white || in.readInt() != black) {
+                throw new IOException("Sauvegarde invalide : " + checkpoint);
+            }
+            int pass = in.readInt();
+            if (in.readLong() != size) {
+                throw new IOException("Sauvegarde invalide : " + checkpoint);
+            }
+            for (byte[] block : values) {
+                in.readFully(block);
+            }
+            return pass;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package iialib.games.algs;
 
 import java.util.ArrayList;
 
+import iialib.games.log.Log;
 import iialib.games.model.IBoard;
 import iialib.games.model.IMove;
 import iialib.games.model.IRole;
@@ -25,31 +26,41 @@ public  abstract class AbstractGame<Move extends IMove, Role extends IRole, Boar
 		public void runGame() {
 			int index = 0;
 			AIPlayer<Move,Role,Board> currentPlayer = players.get(index);
-			System.out.println("Game begining - First player is : " + currentPlayer);
-			System.out.println("The board is :");
-			System.out.println(currentBoard);
+			if (Log.isEnabled(Log.Level.INFO))
+				Log.info("Game begining - First player is : " + currentPlayer);
+			logBoard();
 			
 			while(!currentBoard.isGameOver()) {
-				System.out.println("Next player is  :" + currentPlayer);
+				if (Log.isEnabled(Log.Level.INFO))
+					Log.info("Next player is  :" + currentPlayer);
 				Move nextMove = currentPlayer.bestMove(currentBoard);
-				System.out.println("Best Move is :" + nextMove);
+				if (Log.isEnabled(Log.Level.INFO))
+					Log.info("Best Move is :" + nextMove);
 				currentBoard = currentPlayer.playMove(currentBoard, nextMove);
-				System.out.println("The board is :");
-				System.out.println(currentBoard);
+				logBoard();
 				index = 1 - index;
 				currentPlayer = players.get(index);
 			}
 			
-			System.out.println("Game over !");
+			Log.info("Game over !");
 			ArrayList<Score<Role>> scores = currentBoard.getScores();
 			for(AIPlayer<Move,Role,Board> p: players)
 				for(Score<Role> s : scores)
 					if(p.getRole() == s.getRole())
-						System.out.println("" + p + " score is : " + s.getStatus() + " " + s.getScore());
+						Log.info("" + p + " score is : " + s.getStatus() + " " + s.getScore());
 				;
+			Log.flush();
 		
 		}
 		
+		// The board is only printed (and converted to a string) at DEBUG level
+		private void logBoard() {
+			if (Log.isEnabled(Log.Level.DEBUG)) {
+				Log.debug("The board is :");
+				Log.debug(currentBoard.toString());
+			}
+		}
+		
 	
 
 
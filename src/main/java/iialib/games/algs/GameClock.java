@@ -0,0 +1,95 @@
+package iialib.games.algs;
+
+/**
+ * Tracks the thinking time used by a player over a game with a total time budget, and derives from it
+ * the time that can be given to the next move.
+ *
+ * The remaining time is shared between the moves that are still expected, so the player uses its
+ * whole clock without ever running out of it.
+ */
+public class GameClock {
+
+	// ----------- Attributes  ------------
+
+	/** Total thinking time for the whole game, in milliseconds */
+	private final long totalMillis;
+
+	/** Number of moves a game is expected to last for this player */
+	private final int expectedMoves;
+
+	/** The remaining time is always shared between at least this number of moves */
+	private final int minMovesLeft;
+
+	/** Time kept aside for the communication and the move generation around the search, in milliseconds */
+	private final long safetyMillis;
+
+	/** Thinking time used so far, in milliseconds */
+	private long usedMillis;
+
+	/** Number of moves played so far */
+	private int movesPlayed;
+
+	/** System.currentTimeMillis() at the beginning of the current move (0 when not thinking) */
+	private long moveStart;
+
+	// ----------- Constructors ------------
+
+	public GameClock(long totalMillis, int expectedMoves, int minMovesLeft, long safetyMillis) {
+		this.totalMillis = totalMillis;
+		this.expectedMoves = expectedMoves;
+		this.minMovesLeft = minMovesLeft;
+		this.safetyMillis = safetyMillis;
+	}
+
+	// ----------- Other Methods ------------
+
+	/**
+	 * Starts counting the time of a move
+	 */
+	public void startMove() {
+		moveStart = System.currentTimeMillis();
+	}
+
+	/**
+	 * Stops counting the time of the current move
+	 */
+	public void endMove() {
+		if (moveStart != 0) {
+			usedMillis += System.currentTimeMillis() - moveStart;
+			moveStart = 0;
+		}
+		movesPlayed++;
+	}
+
+	/**
+	 * @return the time that can be used by the search for the current move, in milliseconds (at least 1)
+	 */
+	public long moveBudget() {
+		long remaining = getRemainingMillis() - safetyMillis;
+		int movesLeft = Math.max(minMovesLeft, expectedMoves - movesPlayed);
+		return Math.max(1, remaining / movesLeft);
+	}
+
+	/**
+	 * Forgets the time used, for a new game
+	 */
+	public void reset() {
+		usedMillis = 0;
+		movesPlayed = 0;
+		moveStart = 0;
+	}
+
+	public long getRemainingMillis() {
+		long current = moveStart != 0 ? System.currentTimeMillis() - moveStart : 0;
+		return totalMillis - usedMillis - current;
+	}
+
+	public int getMovesPlayed() {
+		return movesPlayed;
+	}
+
+	public String toString() {
+		return "GameClock(" + getRemainingMillis() + " ms left, " + movesPlayed + " moves played)";
+	}
+
+}
@@ -0,0 +1,30 @@
+package iialib.games.algs;
+
+import iialib.games.model.IBoard;
+import iialib.games.model.IRole;
+
+/**
+ * Exact values of a solved part of the game (endgame tablebases), probed by the search at its leaves instead of
+ * the heuristic.
+ *
+ * A probe must be cheap when the position is not in the tables (e.g. a material test first), since it is made at
+ * every leaf. A table is shared by the threads of a parallel search.
+ *
+ * @param <Board> Class implementing the boards for the game
+ * @param <Role> Class implementing the roles for the game
+ */
+public interface IEndgameTable<Board extends IBoard<?, Role, Board>, Role extends IRole> {
+
+	/** Returned by probe for a position that is not in the tables */
+	int NOT_FOUND = Integer.MIN_VALUE;
+
+	/**
+	 * returns the exact value of a position, in the scale of the heuristic : a win should be worth more than any
+	 * heuristic value, and a quicker win more than a slower one
+	 * @param board the position
+	 * @param playerRole role of the player to move, whose point of view is returned
+	 * @return the value, or NOT_FOUND
+	 */
+	int probe(Board board, Role playerRole);
+
+}
@@ -0,0 +1,69 @@
+package iialib.games.algs;
+
+import java.util.ArrayList;
+
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+
+/**
+ * Move ordering hook for the search algorithms.
+ *
+ * At each node the algorithm asks for one score per generated move, in a primitive array, and then searches
+ * the moves by decreasing score (the list itself is never sorted). When a move causes a cutoff the orderer is
+ * told, so that it can learn which moves refute which positions (killer moves, history, counter-moves...).
+ *
+ * An orderer keeps state and is used by one thread at a time : parallel searches get their own with fork().
+ *
+ * @param <Move> Class implementing the moves for the game
+ * @param <Role> Class implementing the roles for the game
+ * @param <Board> Class implementing the boards for the game
+ */
+public interface IMoveOrderer<Move extends IMove, Role extends IRole, Board extends IBoard<Move,Role,Board>> {
+
+	/**
+	 * called at the beginning of each search (e.g. to age the statistics of the previous ones)
+	 */
+	void newSearch();
+
+	/**
+	 * scores the moves of a node : the highest scores are searched first, equal scores in the list order
+	 * @param board the position of the node
+	 * @param playerRole role of the player to move
+	 * @param moves the generated moves
+	 * @param ply depth of the node from the root
+	 * @param previous move that led to the node (null when unknown, e.g. at the root)
+	 * @param hashIndex index in moves of the best move found by a previous search of the node, or -1
+	 * @param scores receives the score of moves.get(i) in scores[i], always greater than Integer.MIN_VALUE
+	 */
+	void scoreMoves(Board board, Role playerRole, ArrayList<Move> moves, int ply, Move previous, int hashIndex, int[] scores);
+
+	/**
+	 * called when a move causes a cutoff
+	 * @param board the position of the node (the move is not played)
+	 * @param playerRole role of the player who played the move
+	 * @param move the move that caused the cutoff
+	 * @param ply depth of the node from the root
+	 * @param previous move that led to the node (null when unknown)
+	 * @param remaining depth that remained to be searched below the node
+	 */
+	void cutoff(Board board, Role playerRole, Move move, int ply, Move previous, int remaining);
+
+	/**
+	 * returns a killer move : a move that caused a cutoff at the same depth, tried before the quiet moves are
+	 * generated by a staged search (see IStagedBoard)
+	 * @param playerRole role of the player to move
+	 * @param ply depth of the node from the root
+	 * @param slot 0 for the most recent killer, 1 for the previous one
+	 * @return the killer move (it may not be valid in the position), or null if none
+	 */
+	default Move killer(Role playerRole, int ply, int slot) {
+		return null;
+	}
+
+	/**
+	 * @return an orderer for another thread, starting from what this one has learnt
+	 */
+	IMoveOrderer<Move, Role, Board> fork();
+
+}
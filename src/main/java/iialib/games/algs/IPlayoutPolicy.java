@@ -0,0 +1,46 @@
+package iialib.games.algs;
+
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+
+import java.util.SplittableRandom;
+
+/**
+ * Playout policy of a Monte Carlo search: plays a game to the end from a position, and tells who won it.
+ *
+ * The playout is played in place on an IUndoableBoard with makeMove : the algorithm undoes the moves itself,
+ * so a policy for a fast search should not allocate anything per move. A policy is shared by the threads
+ * of a parallel search and must not keep state between calls.
+ *
+ * @param <Move> Class implementing the moves for the game
+ * @param <Role> Class implementing the roles for the game
+ * @param <Board> Class implementing the boards for the game
+ */
+public interface IPlayoutPolicy<Move extends IMove, Role extends IRole, Board extends IBoard<Move,Role,Board>> {
+
+	/**
+	 * plays random (or lightly biased) moves on board with makeMove, until the game is over or moveCodes is full
+	 * @param board the position, modified in place (it implements IUndoableBoard)
+	 * @param playerRole role of the player to move
+	 * @param random source of randomness of the calling thread
+	 * @param moveCodes receives the code of each move played (see IStagedBoard.moveCode, -1 if none)
+	 * @return the number of moves played
+	 */
+	int playout(Board board, Role playerRole, SplittableRandom random, int[] moveCodes);
+
+	/**
+	 * returns the result of a playout for a player
+	 * @param board the position at the end of the playout
+	 * @param playerRole the player
+	 * @return 1 if the player won, -1 if he lost, 0 for a draw or an unfinished game
+	 */
+	int result(Board board, Role playerRole);
+
+	/**
+	 * returns the move played by a player who has no possible move, when the game is not over
+	 * @return the pass move, or null if the game has none
+	 */
+	Move passMove();
+
+}
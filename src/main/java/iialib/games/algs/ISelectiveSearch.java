@@ -0,0 +1,47 @@
+package iialib.games.algs;
+
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+
+/**
+ * Game knowledge used by a selective search, that does not give every move the same depth.
+ *
+ * The algorithm decides where to reduce, prune or extend; this hook tells it which moves are quiet (they may
+ * be searched less deeply, or not at all near the leaves), how much a quiet move can change the heuristic,
+ * and which moves deserve more depth.
+ *
+ * @param <Move> Class implementing the moves for the game
+ * @param <Role> Class implementing the roles for the game
+ * @param <Board> Class implementing the boards for the game
+ */
+public interface ISelectiveSearch<Move extends IMove, Role extends IRole, Board extends IBoard<Move,Role,Board>> {
+
+	/**
+	 * checks if a move is quiet : it neither takes nor threatens anything, so a shallower search is enough
+	 * @param board the position before the move
+	 * @param playerRole role of the player who plays the move
+	 * @param move the move
+	 * @return true if the move may be reduced or pruned
+	 */
+	boolean isQuiet(Board board, Role playerRole, Move move);
+
+	/**
+	 * returns the number of plies added to the search of a move (a forcing move, a reply that leaves few choices...) :
+	 * a move with an extension is never reduced nor pruned, even when extensions are disabled
+	 * @param board the position after the move
+	 * @param playerRole role of the player who played the move
+	 * @param move the move
+	 * @return the extension, 0 for none
+	 */
+	int extension(Board board, Role playerRole, Move move);
+
+	/**
+	 * returns the largest gain of the heuristic that a quiet move can bring at a small remaining depth : a quiet
+	 * move is not searched when the static value plus this margin cannot reach alpha
+	 * @param remaining depth that remains to be searched below the node
+	 * @return the margin, 0 or less to never prune at that depth
+	 */
+	int futilityMargin(int remaining);
+
+}
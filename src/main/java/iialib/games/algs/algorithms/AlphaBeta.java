@@ -1,12 +1,24 @@
 package iialib.games.algs.algorithms;
 
 import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.IEndgameTable;
 import iialib.games.algs.IHeuristic;
+import iialib.games.algs.IMoveOrderer;
+import iialib.games.algs.ISelectiveSearch;
+import iialib.games.log.Log;
 import iialib.games.model.IBoard;
+import iialib.games.model.IHashableBoard;
 import iialib.games.model.IMove;
 import iialib.games.model.IRole;
+import iialib.games.model.IStagedBoard;
+import iialib.games.model.ITacticalBoard;
+import iialib.games.model.IUndoableBoard;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>>
         implements GameAlgorithm<Move, Role, Board> {
@@ -15,6 +27,22 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
     /** Default value for depth limit */
     private final static int DEPTH_MAX_DEFAUT = 4;
 
+    /** Max number of plies of the quiescence search where a threatened player searches all its replies */
+    private final static int QUIESCENCE_REPLIES_MAX = 2;
+
+    /** Bound of the negamax windows: -INFINITY and INFINITY can be negated without overflow */
+    private final static int INFINITY = Integer.MAX_VALUE;
+
+    /** Negamax scores are clamped to [-SCORE_MAX, SCORE_MAX], so that a null window above any score fits in an int */
+    private final static int SCORE_MAX = INFINITY - 1;
+
+    /** Late move reductions: moves searched at full depth first, and smallest remaining depth that is reduced */
+    private final static int LMR_FULL_MOVES = 3;
+    private final static int LMR_MIN_DEPTH = 3;
+
+    /** Mixed into the position key of nodes where MIN is to move */
+    private final static long MIN_TO_MOVE_KEY = 0x9E3779B97F4A7C15L;
+
     // Attributes
     /** Role of the max player */
     private final Role playerMaxRole;
@@ -25,18 +53,109 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
     /** Algorithm max depth */
     private int depthMax = DEPTH_MAX_DEFAUT;
 
+    /** Depth limit of the current iteration (depthMax when not deepening) */
+    private int depthLimit;
+
+    /** Time allowed for each bestMove call in milliseconds (0 = fixed depth search) */
+    private long timeLimitMillis;
+
+    /** System.nanoTime() value at which the current search must stop (0 = no deadline) */
+    private long deadline;
+
+    /** True when the current iteration was interrupted by the deadline */
+    private boolean aborted;
+
+    /** Last depth fully searched by the last bestMove call */
+    private int completedDepth;
+
     /** Heuristic used by the max player */
     private IHeuristic<Board, Role> h;
 
-    /** Number of internally visited (developed) nodes (for stats) */
-    private int nbNodes;
+    /** Counters of the current search (nodes, leaves, cutoffs...) */
+    private final SearchStats.Counters counters = new SearchStats.Counters();
 
-    /** Number of leaves nodes (for stats) */
-    private int nbLeaves;
+    /** Statistics of the last search */
+    private SearchStats stats;
 
     /** Use negamax version if true, classic version if false */
     private boolean useNegamax;
 
+    /** Principal variation search in negamax mode: null windows for the moves after the first one */
+    private boolean pvs;
+
+    /** Half width of the aspiration window around the previous iteration score (0 = full window) */
+    private int aspirationWindow;
+
+    /** Score of the best root move of the last negamax root search, for the player to move */
+    private int rootScore;
+
+    /** Game knowledge of the selective search (null: every move gets the same depth) */
+    private ISelectiveSearch<Move, Role, Board> selectivity;
+
+    /** Exact values probed at the leaves in negamax mode before the heuristic (null: heuristic only) */
+    private IEndgameTable<Board, Role> endgameTable;
+
+    /** Parts of the selective search enabled in negamax mode */
+    private boolean lateMoveReductions;
+    private boolean futilityPruning;
+    private boolean extensions;
+
+    /** Parts of the selective search used by the current search (set for each bestMove call) */
+    private boolean reducing;
+    private boolean pruning;
+    private boolean extending;
+
+    /** True while searching a board that supports makeMove/unmakeMove (set for each bestMove call) */
+    private boolean inPlace;
+
+    /** Optional transposition table (null when disabled) */
+    private TranspositionTable tt;
+
+    /** True when the table belongs to a Lazy SMP search: its generation is advanced by the coordinator, not here */
+    private boolean sharedTable;
+
+    /** True while searching a hashable board with a transposition table (set for each bestMove call) */
+    private boolean hashing;
+
+    /** Search the tactical moves past the depth limit when the board implements ITacticalBoard */
+    private boolean quiescence;
+
+    /** True while searching a tactical board with quiescence enabled (set for each bestMove call) */
+    private boolean quiescing;
+
+    /** Optional move ordering (null: moves searched in generation order, hash move first) */
+    private IMoveOrderer<Move, Role, Board> orderer;
+
+    /** True while searching with a move orderer (set for each bestMove call) */
+    private boolean ordering;
+
+    /** Generate the moves in stages (hash move, tactical moves, killers, quiet moves) on an IStagedBoard */
+    private boolean stagedGeneration;
+
+    /** True while searching a staged board with staged generation enabled (set for each bestMove call) */
+    private boolean staging;
+
+    /** Move picker of the node being searched at each depth (reused from one node to the next) */
+    private final ArrayList<MovePicker<Move, Role, Board>> pickers = new ArrayList<>();
+
+    /** Moves played from the root to the current node, by depth (the root move at index 0) */
+    private Object[] line = new Object[0];
+
+    /** Number of threads searching the root moves (1 = serial search) */
+    private int parallelism = 1;
+
+    /** Pool running the root moves in parallel (created on first use) */
+    private ForkJoinPool pool;
+
+    /** Only reuse table entries of the exact remaining depth, so that the result does not depend on thread timing */
+    private boolean exactDepthProbe;
+
+    /** Stop signal raised by another thread: Lazy SMP coordinator or end of pondering (null when none) */
+    private AtomicBoolean stopSignal;
+
+    /** First depth of the iterative deepening */
+    private int startDepth = 1;
+
     // --------- Constructors ---------
 
     public AlphaBeta(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h) {
@@ -56,19 +175,63 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
         this.useNegamax = useNegamax;
     }
 
+    /**
+     * Worker searching one root move for a parallel search, with the settings of the current search of parent
+     * @param parent the algorithm running the search
+     */
+    private AlphaBeta(AlphaBeta<Move, Role, Board> parent) {
+        this(parent.playerMaxRole, parent.playerMinRole, parent.h, parent.depthMax, parent.useNegamax);
+        this.depthLimit = parent.depthLimit;
+        this.deadline = parent.deadline;
+        this.stopSignal = parent.stopSignal;
+        this.inPlace = parent.inPlace;
+        this.tt = parent.tt;
+        this.hashing = parent.hashing;
+        this.quiescence = parent.quiescence;
+        this.quiescing = parent.quiescing;
+        this.orderer = parent.orderer == null ? null : parent.orderer.fork();
+        this.ordering = parent.ordering;
+        this.pvs = parent.pvs;
+        this.selectivity = parent.selectivity;
+        this.endgameTable = parent.endgameTable;
+        // Reductions and futility pruning depend on alpha, which comes from the other workers: turned off, so
+        // that the chosen move stays independent of thread timing
+        this.reducing = false;
+        this.pruning = false;
+        this.extending = parent.extending;
+        this.stagedGeneration = parent.stagedGeneration;
+        this.staging = parent.staging;
+        this.line = new Object[parent.line.length];
+        this.exactDepthProbe = true;
+    }
+
     /*
      * IAlgo METHODS =============
      */
 
     @Override
     public Move bestMove(Board board, Role playerRole) {
-        System.out.println("[AlphaBeta" + (useNegamax ? "-Negamax" : "") + "]");
+        Log.debug(useNegamax ? "[AlphaBeta-Negamax]" : "[AlphaBeta]");
 
         // Reset statistics
-        nbNodes = 0;
-        nbLeaves = 0;
+        long start = System.nanoTime();
+        counters.reset();
+        completedDepth = 0;
+
+        Move bestMove = search(board, playerRole);
+        stats = counters.snapshot(System.nanoTime() - start, completedDepth);
+        return bestMove;
+    }
 
+    /**
+     * Searches the best move, at a fixed depth or by iterative deepening
+     * @param board current board state
+     * @param playerRole role of the player to move
+     * @return the best move, or null if the player cannot move
+     */
+    private Move search(Board board, Role playerRole) {
         // Get all possible moves for the current player
+        counters.moveGeneration();
         ArrayList<Move> moves = board.possibleMoves(playerRole);
 
         // If no moves are possible, return null
@@ -76,76 +239,565 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
             return null;
         }
 
+        // Undoable boards are copied once and then modified in place during the whole search
+        inPlace = board instanceof IUndoableBoard;
+        if (inPlace) {
+            board = asUndoable(board).copy();
+        }
+
+        // The transposition table is kept between calls, older entries become replaceable
+        hashing = tt != null && board instanceof IHashableBoard;
+        if (hashing && !sharedTable) {
+            tt.newSearch();
+        }
+
+        quiescing = quiescence && board instanceof ITacticalBoard;
+        ordering = orderer != null;
+        if (ordering) {
+            orderer.newSearch();
+        }
+        staging = stagedGeneration && board instanceof IStagedBoard;
+        reducing = lateMoveReductions && useNegamax && selectivity != null;
+        pruning = futilityPruning && useNegamax && selectivity != null;
+        extending = extensions && useNegamax && selectivity != null;
+        if (line.length <= 2 * depthMax) {
+            line = new Object[2 * depthMax + 1]; // Extended lines are at most twice as long as the depth limit
+        }
+        aborted = false;
+        exactDepthProbe = parallelism > 1;
+
+        // Fixed depth search
+        if (timeLimitMillis <= 0 && stopSignal == null) {
+            deadline = 0L;
+            depthLimit = depthMax;
+            Move bestMove = searchRoot(board, moves, playerRole);
+            completedDepth = depthMax;
+            counters.iterationCompleted();
+            return bestMove;
+        }
+
+        // Iterative deepening: deepen until the time budget is spent, keep the result of the last complete iteration
+        long start = System.nanoTime();
+        deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1_000_000L : 0L; // Without time limit: until stopped
         Move bestMove = null;
 
-        if (useNegamax) {
-            // Negamax version
-            int bestValue = Integer.MIN_VALUE;
-            int alpha = Integer.MIN_VALUE;
-            int beta = Integer.MAX_VALUE;
-
-            for (Move move : moves) { // Explore all possible moves
-                Board nextBoard = board.play(move, playerRole); // Get the next board state
-                int value = -negamax(nextBoard, 1, -beta, -alpha, playerRole); // Negate the value for the opponent
-
-                if (value > bestValue) { // Update best value and move if necessary
-                    bestValue = value;
-                    bestMove = move;
+        for (depthLimit = Math.min(startDepth, depthMax); depthLimit <= depthMax; depthLimit++) {
+            Move iterationBest = searchRoot(board, moves, playerRole);
+
+            if (aborted) {
+                if (bestMove == null) {
+                    bestMove = iterationBest; // Best of the moves completed at depth 1, if any
                 }
-                alpha = Math.max(alpha, value); // Update alpha
+                break;
             }
-        } else {
-            // Classic version
-            if (playerRole.equals(playerMaxRole)) {
-                // MAX player: maximize the value
-                int bestValue = Integer.MIN_VALUE;
-                for (Move move : moves) { // Explore all possible moves
-                    Board nextBoard = board.play(move, playerRole); // Get the next board state
-                    int value = minMaxAB(nextBoard, 1, Integer.MIN_VALUE, Integer.MAX_VALUE); // Get the value from MIN's perspective
-                    if (value > bestValue) {
-                        bestValue = value;
-                        bestMove = move;
-                    }
-                }
+            bestMove = iterationBest;
+            completedDepth = depthLimit;
+            counters.iterationCompleted();
+
+            // The best move of this iteration is searched first in the next one
+            moves.remove(bestMove);
+            moves.add(0, bestMove);
+
+            // A deeper iteration costs several times the previous ones: do not start it past half the budget
+            if (deadline != 0L && System.nanoTime() - start > (deadline - start) / 2) {
+                break;
+            }
+        }
+
+        return bestMove != null ? bestMove : moves.get(0);
+    }
+
+    /**
+     * Searches all the root moves down to depthLimit
+     * @param board current board state
+     * @param moves moves of the player at the root, in search order
+     * @param playerRole role of the player to move
+     * @return the best move (best of the moves fully searched if the deadline was reached)
+     */
+    private Move searchRoot(Board board, ArrayList<Move> moves, Role playerRole) {
+        if (parallelism > 1) {
+            return searchRootParallel(board, moves, playerRole);
+        }
+        if (useNegamax) {
+            return searchRootAspiration(board, moves, playerRole);
+        }
+
+        boolean maximizing = playerRole.equals(playerMaxRole);
+        int bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        Move bestMove = null;
+
+        for (Move move : moves) { // Explore all possible moves
+            int value = rootValue(board, move, playerRole, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+            if (aborted) {
+                break; // This value is not reliable
+            }
+            if (maximizing ? value > bestValue : value < bestValue) { // Update best value and move if necessary
+                bestValue = value;
+                bestMove = move;
+            }
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * Searches the root moves in negamax mode. After a complete iteration, the next one is searched within an
+     * aspiration window around its score: when the best score falls outside, the window is widened on that side
+     * (four times wider each time) and the root is searched again.
+     * @param board current board state
+     * @param moves moves of the player at the root, in search order
+     * @param playerRole role of the player to move
+     * @return the best move (best of the moves fully searched if the deadline was reached)
+     */
+    private Move searchRootAspiration(Board board, ArrayList<Move> moves, Role playerRole) {
+        boolean aspiring = aspirationWindow > 0 && completedDepth > 0;
+        long delta = aspirationWindow;
+        int alpha = aspiring ? window(rootScore - delta) : -INFINITY;
+        int beta = aspiring ? window(rootScore + delta) : INFINITY;
+
+        while (true) {
+            Move bestMove = searchRootWindow(board, moves, playerRole, alpha, beta);
+            if (aborted) {
+                return bestMove;
+            }
+            if (rootScore <= alpha && alpha > -INFINITY) { // Fail low: all the moves are worse than expected
+                delta *= 4;
+                alpha = window(rootScore - delta);
+            } else if (rootScore >= beta && beta < INFINITY) { // Fail high: a move is better than expected
+                delta *= 4;
+                beta = window(rootScore + delta);
             } else {
-                // MIN player: minimize the value
-                int bestValue = Integer.MAX_VALUE;
-                for (Move move : moves) { // Explore all possible moves
-                    Board nextBoard = board.play(move, playerRole); // Get the next board state
-                    int value = maxMinAB(nextBoard, 1, Integer.MIN_VALUE, Integer.MAX_VALUE); // Get the value from MAX's perspective
-                    if (value < bestValue) {
-                        bestValue = value;
-                        bestMove = move;
-                    }
+                return bestMove;
+            }
+            counters.research();
+        }
+    }
+
+    /**
+     * Searches the root moves in negamax mode within a window, and keeps the best score in rootScore
+     * @param board current board state
+     * @param moves moves of the player at the root, in search order
+     * @param playerRole role of the player to move
+     * @param alpha lower bound of the window
+     * @param beta upper bound of the window
+     * @return the best move (best of the moves fully searched if the deadline was reached)
+     */
+    private Move searchRootWindow(Board board, ArrayList<Move> moves, Role playerRole, int alpha, int beta) {
+        int bestValue = Integer.MIN_VALUE;
+        Move bestMove = null;
+
+        for (Move move : moves) { // Explore all possible moves
+            int value;
+            if (!pvs || bestMove == null) {
+                value = rootValue(board, move, playerRole, alpha, beta);
+            } else {
+                value = rootValue(board, move, playerRole, alpha, alpha + 1); // Only proves the move is not better
+                if (value > alpha && value < beta && !aborted) {
+                    counters.research();
+                    value = rootValue(board, move, playerRole, alpha, beta); // Better: get its exact value
                 }
             }
+
+            if (aborted) {
+                break; // This value is not reliable
+            }
+            if (value > bestValue) { // Update best value and move if necessary
+                bestValue = value;
+                bestMove = move;
+            }
+            alpha = Math.max(alpha, value); // Update alpha
+            if (alpha >= beta) {
+                break; // Fail high: the window must be widened
+            }
+        }
+
+        rootScore = bestValue;
+        return bestMove;
+    }
+
+    /**
+     * Clamps a bound of an aspiration window to the negamax full window
+     */
+    private static int window(long bound) {
+        return (int) Math.max(-INFINITY, Math.min(INFINITY, bound));
+    }
+
+    /**
+     * Searches one root move
+     * @param board current board state
+     * @param move root move
+     * @param playerRole role of the player to move
+     * @param alpha best value for MAX (for the player to move with negamax) along the path
+     * @param beta best value for MIN (for the opponent with negamax) along the path
+     * @return the value of the move
+     */
+    private int rootValue(Board board, Move move, Role playerRole, int alpha, int beta) {
+        line[0] = move;
+        Board nextBoard = playMove(board, move, playerRole); // Get the next board state
+        int value;
+        if (useNegamax) {
+            Role opponentRole = playerRole.equals(playerMaxRole) ? playerMinRole : playerMaxRole;
+            value = -negamax(nextBoard, 1, depthLimit - 1, -beta, -alpha, opponentRole); // Negate the value for the opponent
+        } else if (playerRole.equals(playerMaxRole)) {
+            value = minMaxAB(nextBoard, 1, alpha, beta); // Get the value from MIN's perspective
+        } else {
+            value = maxMinAB(nextBoard, 1, alpha, beta); // Get the value from MAX's perspective
+        }
+        undoMove(board);
+        return value;
+    }
+
+    /**
+     * Searches the root moves on several threads: the first move alone, to get a bound, then all the others
+     * in parallel, each one with its own board and the best value found so far as bound.
+     *
+     * Each move is searched with a window lowered by one, so that a move equal to the best value gets its exact
+     * value: the chosen move is always the first of the best moves, as with the serial search.
+     * @param board current board state
+     * @param moves moves of the player at the root, in search order
+     * @param playerRole role of the player to move
+     * @return the best move (best of the moves fully searched if the deadline was reached)
+     */
+    private Move searchRootParallel(Board board, ArrayList<Move> moves, Role playerRole) {
+        boolean maximizing = useNegamax || playerRole.equals(playerMaxRole);
+        int[] values = new int[moves.size()];
+        boolean[] searched = new boolean[moves.size()];
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        // First move: searched alone with a full window
+        searchRootMove(board, moves, 0, playerRole, -INFINITY, INFINITY, values, searched, interrupted);
+
+        // Other moves: only need to be compared with the best value so far
+        if (!interrupted.get() && moves.size() > 1) {
+            AtomicInteger bestValue = new AtomicInteger(values[0]);
+            if (pool == null) {
+                pool = new ForkJoinPool(parallelism);
+            }
+            pool.invoke(new RootMovesTask(board, moves, 1, moves.size(), playerRole, maximizing, bestValue, values, searched, interrupted));
         }
+        aborted = interrupted.get();
 
+        // Choose in the search order, so that ties are always resolved the same way
+        Move bestMove = null;
+        int best = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (searched[i] && (bestMove == null || (maximizing ? values[i] > best : values[i] < best))) {
+                best = values[i];
+                bestMove = moves.get(i);
+            }
+        }
         return bestMove;
     }
 
+    /**
+     * Searches one root move with a worker of its own, and collects its statistics
+     */
+    private void searchRootMove(Board board, ArrayList<Move> moves, int index, Role playerRole, int alpha, int beta,
+                                int[] values, boolean[] searched, AtomicBoolean interrupted) {
+        AlphaBeta<Move, Role, Board> worker = new AlphaBeta<>(this);
+        Board workerBoard = inPlace ? asUndoable(board).copy() : board;
+        int value = worker.rootValue(workerBoard, moves.get(index), playerRole, alpha, beta);
+        synchronized (counters) {
+            counters.add(worker.counters);
+        }
+        if (worker.aborted) {
+            interrupted.set(true);
+        } else {
+            values[index] = value;
+            searched[index] = true;
+        }
+    }
+
+    /**
+     * Searches a range of root moves, splitting it in halves until a single move remains
+     */
+    private class RootMovesTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final ArrayList<Move> moves;
+        private final int from;
+        private final int to;
+        private final Role playerRole;
+        private final boolean maximizing;
+        private final AtomicInteger bestValue;
+        private final int[] values;
+        private final boolean[] searched;
+        private final AtomicBoolean interrupted;
+
+        RootMovesTask(Board board, ArrayList<Move> moves, int from, int to, Role playerRole, boolean maximizing,
+                      AtomicInteger bestValue, int[] values, boolean[] searched, AtomicBoolean interrupted) {
+            this.board = board;
+            this.moves = moves;
+            this.from = from;
+            this.to = to;
+            this.playerRole = playerRole;
+            this.maximizing = maximizing;
+            this.bestValue = bestValue;
+            this.values = values;
+            this.searched = searched;
+            this.interrupted = interrupted;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RootMovesTask(board, moves, from, middle, playerRole, maximizing, bestValue, values, searched, interrupted),
+                          new RootMovesTask(board, moves, middle, to, playerRole, maximizing, bestValue, values, searched, interrupted));
+                return;
+            }
+            if (interrupted.get()) {
+                return; // Out of time: do not start new moves
+            }
+
+            // Window lowered (or raised for MIN) by one: a move equal to the best value so far gets its exact value
+            int bound = bestValue.get();
+            if (maximizing) {
+                searchRootMove(board, moves, from, playerRole, bound == Integer.MIN_VALUE ? bound : bound - 1, Integer.MAX_VALUE,
+                               values, searched, interrupted);
+            } else {
+                searchRootMove(board, moves, from, playerRole, Integer.MIN_VALUE, bound == Integer.MAX_VALUE ? bound : bound + 1,
+                               values, searched, interrupted);
+            }
+            if (searched[from]) {
+                int value = values[from];
+                bestValue.accumulateAndGet(value, maximizing ? Math::max : Math::min);
+            }
+        }
+    }
+
     /*
      * PUBLIC METHODS ==============
      */
 
     public String toString() {
-        return "AlphaBeta(ProfMax=" + depthMax + ", " + (useNegamax ? "Negamax" : "Classic") + ")";
+        return "AlphaBeta(ProfMax=" + depthMax + ", " + (useNegamax ? (pvs ? "PVS" : "Negamax") : "Classic") + ")";
+    }
+
+    /**
+     * Enables the principal variation search in negamax mode: the first move of each node is searched with the
+     * full window, the next ones with a null window that only proves they are not better, and a move that is
+     * better after all is searched again with the full window
+     * @param enabled true to use null windows after the first move
+     */
+    public void setPrincipalVariationSearch(boolean enabled) {
+        this.pvs = enabled;
+    }
+
+    /**
+     * Gives the game knowledge used by the selective search (see setLateMoveReductions, setFutilityPruning and
+     * setExtensions, which do nothing without it)
+     * @param selectivity the game knowledge (null to give every move the same depth)
+     */
+    public void setSelectiveSearch(ISelectiveSearch<Move, Role, Board> selectivity) {
+        this.selectivity = selectivity;
+    }
+
+    /**
+     * Gives the endgame tablebases probed at the leaves in negamax mode: a position found in them gets its exact
+     * value instead of the heuristic one
+     * @param table the tablebases (null to only use the heuristic)
+     */
+    public void setEndgameTable(IEndgameTable<Board, Role> table) {
+        this.endgameTable = table;
+    }
+
+    /**
+     * Enables the late move reductions in negamax mode: the quiet moves searched after the first few ones are
+     * searched one ply less deep with a null window, and again at full depth only when they turn out better.
+     * Not applied by the parallel root search (setParallelism), whose windows depend on thread timing.
+     * @param enabled true to reduce the late quiet moves
+     */
+    public void setLateMoveReductions(boolean enabled) {
+        this.lateMoveReductions = enabled;
+    }
+
+    /**
+     * Enables the futility pruning in negamax mode: near the leaves, when the static value of a position plus the
+     * futility margin of the game cannot reach alpha, its quiet moves (after the first one) are not searched.
+     * Not applied by the parallel root search (setParallelism), whose windows depend on thread timing.
+     * @param enabled true to prune the futile quiet moves
+     */
+    public void setFutilityPruning(boolean enabled) {
+        this.futilityPruning = enabled;
+    }
+
+    /**
+     * Enables the extensions in negamax mode: the moves chosen by the game get one more ply, as long as the line
+     * stays shorter than twice the depth limit
+     * @param enabled true to extend the forcing moves
+     */
+    public void setExtensions(boolean enabled) {
+        this.extensions = enabled;
+    }
+
+    /**
+     * Enables aspiration windows in negamax mode with iterative deepening: each iteration after the first one
+     * searches the root within a window around the score of the previous iteration, widened when the score
+     * falls outside (the serial root search only)
+     * @param halfWidth half width of the window, in heuristic units (0 to always search with the full window)
+     */
+    public void setAspirationWindow(int halfWidth) {
+        this.aspirationWindow = Math.max(0, halfWidth);
+    }
+
+    /**
+     * Switches to iterative deepening under a time budget: each bestMove call deepens 1, 2, 3 ... (up to the
+     * max depth) and returns the best move of the last complete iteration when the time runs out
+     * @param millis time allowed per move in milliseconds (0 to go back to a fixed depth search)
+     */
+    public void setTimeLimit(long millis) {
+        this.timeLimitMillis = millis;
+    }
+
+    /**
+     * Orders the moves of the inner nodes with a move orderer instead of the generation order (the root moves
+     * keep their order: the best move of the previous iteration first)
+     * @param orderer the move orderer (null to search the moves in generation order)
+     */
+    public void setMoveOrderer(IMoveOrderer<Move, Role, Board> orderer) {
+        this.orderer = orderer;
+    }
+
+    /**
+     * Enables the staged move generation, used when the board implements IStagedBoard: at each node the best move
+     * of the transposition table, the tactical moves and the killer moves are searched before the quiet moves
+     * are generated, so that a cutoff on one of them saves the generation. The table then stores move codes.
+     * @param enabled true to generate the moves in stages
+     */
+    public void setStagedGeneration(boolean enabled) {
+        this.stagedGeneration = enabled;
+    }
+
+    /**
+     * Enables the quiescence search, used when the board implements ITacticalBoard: below the depth limit, the
+     * tactical moves (and the replies of a threatened player) are searched until the position is quiet
+     * @param enabled true to search past the depth limit
+     */
+    public void setQuiescence(boolean enabled) {
+        this.quiescence = enabled;
+    }
+
+    /**
+     * Searches the root moves on several threads (a ForkJoinPool of that size). With more than one thread,
+     * the transposition table only answers with entries of the exact remaining depth, so that the chosen move
+     * at a fixed depth does not depend on the order in which the threads fill the table, and the late move
+     * reductions and futility pruning are not applied.
+     * @param threads number of threads (1 for the serial search)
+     */
+    public void setParallelism(int threads) {
+        if (threads != parallelism && pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        this.parallelism = Math.max(1, threads);
+    }
+
+    /**
+     * Makes this algorithm one of the searchers of a Lazy SMP search: iterative deepening from startDepth
+     * until stop is set (or the time limit is reached), sharing the transposition table of the other searchers.
+     * The caller starts the new generation of the table once, before the searchers are run.
+     * @param table shared transposition table
+     * @param stop signal set when the search must end
+     * @param startDepth first depth of the iterative deepening
+     */
+    void joinSharedSearch(TranspositionTable table, AtomicBoolean stop, int startDepth) {
+        setTranspositionTable(table);
+        this.sharedTable = true;
+        setStopSignal(stop);
+        this.startDepth = Math.max(1, startDepth);
+    }
+
+    /**
+     * Gives a stop signal to the search: while it is set, bestMove deepens without time limit (unless one is set)
+     * until the signal is raised, then returns the best move of the last complete iteration
+     * @param stop signal raised by another thread to end the search (null to remove it)
+     */
+    public void setStopSignal(AtomicBoolean stop) {
+        this.stopSignal = stop;
+    }
+
+    /**
+     * Returns the depth of the last complete iteration of the last search
+     * @return depth fully searched
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Enables a transposition table, used when the board implements IHashableBoard
+     * @param sizeMb size of the table in megabytes (0 to disable it)
+     */
+    public void setTranspositionTable(int sizeMb) {
+        this.tt = sizeMb > 0 ? new TranspositionTable(sizeMb) : null;
+    }
+
+    /**
+     * Uses an existing transposition table, e.g. the one of another algorithm searching the same game
+     * @param table the table (null to disable it)
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.tt = table;
+    }
+
+    /**
+     * Returns the best move stored in the transposition table for a position (the principal variation move
+     * after the best move of a search)
+     * @param board the position
+     * @param role role of the player to move
+     * @return the move, or null if the position is not in the table
+     */
+    public Move hashMove(Board board, Role role) {
+        if (tt == null || !(board instanceof IHashableBoard)) {
+            return null;
+        }
+        long entry = tt.probe(nodeKey(board, role));
+        int index = entry == 0L ? TranspositionTable.NO_MOVE : TranspositionTable.moveOf(entry);
+        if (index == TranspositionTable.NO_MOVE) {
+            return null;
+        }
+        if (stagedGeneration && board instanceof IStagedBoard) { // Move code stored by a staged search
+            @SuppressWarnings("unchecked")
+            Move move = ((IStagedBoard<Move, Role, Board>) board).moveOfCode(index);
+            return move != null && board.isValidMove(move, role) ? move : null;
+        }
+        ArrayList<Move> moves = board.possibleMoves(role);
+        return index < moves.size() ? moves.get(index) : null;
+    }
+
+    /**
+     * Returns the transposition table
+     * @return the table, or null if disabled
+     */
+    public TranspositionTable getTranspositionTable() {
+        return tt;
     }
 
     /**
      * Returns the number of nodes developed during the search
      * @return number of internally visited nodes
      */
-    public int getNbNodes() {
-        return nbNodes;
+    public long getNbNodes() {
+        return counters.nodes();
     }
 
     /**
      * Returns the number of leaves visited during the search
      * @return number of leaf nodes
      */
-    public int getNbLeaves() {
-        return nbLeaves;
+    public long getNbLeaves() {
+        return counters.leaves();
+    }
+
+    /**
+     * Returns the statistics of the last search (nodes and leaves per depth, cutoffs, speed...)
+     * @return snapshot taken at the end of the last bestMove call, or null before the first one
+     */
+    public SearchStats getStats() {
+        return stats;
     }
 
     /*
@@ -161,37 +813,74 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
      * @return the best value for the MAX player
      */
     private int maxMinAB(Board board, int depth, int alpha, int beta) {
-        nbNodes++;
+        counters.node(depth);
+        if (isTimeUp()) {
+            return 0; // Result ignored: the iteration is abandoned
+        }
 
         // Terminal conditions: game over or max depth reached
-        if (board.isGameOver() || depth >= depthMax) {
-            nbLeaves++;
+        if (board.isGameOver() || depth >= depthLimit) {
+            counters.leaf(depth);
+            if (quiescing && !board.isGameOver()) {
+                return quiesce(board, 0, alpha, beta, playerMaxRole);
+            }
+            counters.evaluation();
             return h.eval(board, playerMaxRole);
         }
 
-        ArrayList<Move> moves = board.possibleMoves(playerMaxRole);
+        // Transposition table: reuse a previous result, or at least its best move
+        long key = 0L;
+        long entry = 0L;
+        if (hashing) {
+            key = nodeKey(board, playerMaxRole);
+            entry = tt.probe(key);
+            if (isUsable(entry, depthLimit - depth, alpha, beta)) {
+                return TranspositionTable.scoreOf(entry);
+            }
+        }
+
+        MovePicker<Move, Role, Board> picker = startPicker(board, playerMaxRole, depth, entry);
+        Move move = picker.next();
 
-        if (moves == null || moves.isEmpty()) {
+        if (move == null) {
             // No possible moves for MAX player, evaluate the board
-            nbLeaves++;
+            counters.leaf(depth);
+            counters.evaluation();
             return h.eval(board, playerMaxRole);
         }
 
+        int alphaOrig = alpha;
         int maxValue = Integer.MIN_VALUE;
+        int bestMove = TranspositionTable.NO_MOVE;
 
         // Explore all possible moves for MAX player
-        for (Move move : moves) {
-            Board nextBoard = board.play(move, playerMaxRole);
+        for (int i = 0; move != null; i++, move = picker.next()) {
+            line[depth] = move;
+            Board nextBoard = playMove(board, move, playerMaxRole);
             int value = minMaxAB(nextBoard, depth + 1, alpha, beta);
-            maxValue = Math.max(maxValue, value);
+            undoMove(board);
+            if (aborted) {
+                return 0; // Unwind without storing anything
+            }
+            if (value > maxValue) {
+                maxValue = value;
+                bestMove = picker.moveId();
+            }
             alpha = Math.max(alpha, value);
 
             // Beta cutoff
             if (alpha >= beta) {
+                counters.cutoff(i);
+                if (ordering) {
+                    orderer.cutoff(board, playerMaxRole, move, depth, previousMove(depth), depthLimit - depth);
+                }
                 break; // Pruning
             }
         }
 
+        if (hashing) {
+            storeResult(key, maxValue, depthLimit - depth, alphaOrig, beta, bestMove);
+        }
         return maxValue;
     }
 
@@ -204,37 +893,74 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
      * @return the best value for the MIN player (worst for MAX)
      */
     private int minMaxAB(Board board, int depth, int alpha, int beta) {
-        nbNodes++;
+        counters.node(depth);
+        if (isTimeUp()) {
+            return 0; // Result ignored: the iteration is abandoned
+        }
 
         // Terminal conditions: game over or max depth reached
-        if (board.isGameOver() || depth >= depthMax) {
-            nbLeaves++;
+        if (board.isGameOver() || depth >= depthLimit) {
+            counters.leaf(depth);
+            if (quiescing && !board.isGameOver()) {
+                return -quiesce(board, 0, negate(beta), negate(alpha), playerMinRole);
+            }
+            counters.evaluation();
             return h.eval(board, playerMaxRole);
         }
 
-        ArrayList<Move> moves = board.possibleMoves(playerMinRole);
+        // Transposition table: reuse a previous result, or at least its best move
+        long key = 0L;
+        long entry = 0L;
+        if (hashing) {
+            key = nodeKey(board, playerMinRole);
+            entry = tt.probe(key);
+            if (isUsable(entry, depthLimit - depth, alpha, beta)) {
+                return TranspositionTable.scoreOf(entry);
+            }
+        }
 
-        if (moves == null || moves.isEmpty()) {
+        MovePicker<Move, Role, Board> picker = startPicker(board, playerMinRole, depth, entry);
+        Move move = picker.next();
+
+        if (move == null) {
             // No possible moves for MIN player, evaluate the board
-            nbLeaves++;
+            counters.leaf(depth);
+            counters.evaluation();
             return h.eval(board, playerMaxRole);
         }
 
+        int betaOrig = beta;
         int minValue = Integer.MAX_VALUE;
+        int bestMove = TranspositionTable.NO_MOVE;
 
         // Explore all possible moves for MIN player
-        for (Move move : moves) {
-            Board nextBoard = board.play(move, playerMinRole);
+        for (int i = 0; move != null; i++, move = picker.next()) {
+            line[depth] = move;
+            Board nextBoard = playMove(board, move, playerMinRole);
             int value = maxMinAB(nextBoard, depth + 1, alpha, beta);
-            minValue = Math.min(minValue, value);
+            undoMove(board);
+            if (aborted) {
+                return 0; // Unwind without storing anything
+            }
+            if (value < minValue) {
+                minValue = value;
+                bestMove = picker.moveId();
+            }
             beta = Math.min(beta, value);
 
             // Alpha cutoff
             if (alpha >= beta) {
+                counters.cutoff(i);
+                if (ordering) {
+                    orderer.cutoff(board, playerMinRole, move, depth, previousMove(depth), depthLimit - depth);
+                }
                 break; // Pruning
             }
         }
 
+        if (hashing) {
+            storeResult(key, minValue, depthLimit - depth, alpha, betaOrig, bestMove);
+        }
         return minValue;
     }
 
@@ -246,47 +972,366 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
      * Negamax recursive method with Alpha-Beta pruning
      * @param board current board state
      * @param depth current depth in the search tree
+     * @param remaining depth that remains to be searched below the node (reduced or extended by the selective search)
      * @param alpha alpha value for pruning
      * @param beta beta value for pruning
      * @param currentRole the current player's role
      * @return the best value for the current player
      */
-    private int negamax(Board board, int depth, int alpha, int beta, Role currentRole) {
-        nbNodes++;
+    private int negamax(Board board, int depth, int remaining, int alpha, int beta, Role currentRole) {
+        counters.node(depth);
+        if (isTimeUp()) {
+            return 0; // Result ignored: the iteration is abandoned
+        }
 
         // Terminal conditions: game over or max depth reached
-        if (board.isGameOver() || depth >= depthMax) {
-            nbLeaves++;
-            int eval = h.eval(board, playerMaxRole);
-            // Return negated value if current player is MIN
-            return currentRole.equals(playerMaxRole) ? eval : -eval;
+        if (board.isGameOver() || remaining <= 0) {
+            counters.leaf(depth);
+            if (quiescing && !board.isGameOver()) {
+                return quiesce(board, 0, alpha, beta, currentRole);
+            }
+            return evaluate(board, currentRole); // Negated value if current player is MIN
+        }
+
+        // Transposition table: reuse a previous result, or at least its best move
+        long key = 0L;
+        long entry = 0L;
+        if (hashing) {
+            key = nodeKey(board, currentRole);
+            entry = tt.probe(key);
+            if (isUsable(entry, remaining, alpha, beta)) {
+                return TranspositionTable.scoreOf(entry);
+            }
         }
 
-        ArrayList<Move> moves = board.possibleMoves(currentRole);
+        MovePicker<Move, Role, Board> picker = startPicker(board, currentRole, depth, entry);
+        Move move = picker.next();
 
-        if (moves == null || moves.isEmpty()) {
+        if (move == null) {
             // No possible moves, evaluate the board
-            nbLeaves++;
-            int eval = h.eval(board, playerMaxRole);
-            return currentRole.equals(playerMaxRole) ? eval : -eval;
+            counters.leaf(depth);
+            return evaluate(board, currentRole);
         }
 
+        // Selective search: a threatened player gets no reduction and no pruning
+        boolean selective = (reducing || pruning) && !isThreatened(board, currentRole);
+        int futilityValue = selective && pruning ? futilityValue(board, remaining, alpha, currentRole) : Integer.MIN_VALUE;
+        boolean futile = futilityValue != Integer.MIN_VALUE;
+        boolean reducible = selective && reducing && remaining >= LMR_MIN_DEPTH;
+
+        int alphaOrig = alpha;
         int maxValue = Integer.MIN_VALUE;
+        int bestMove = TranspositionTable.NO_MOVE;
         Role opponentRole = currentRole.equals(playerMaxRole) ? playerMinRole : playerMaxRole;
 
         // Explore all possible moves for current player
-        for (Move move : moves) {
-            Board nextBoard = board.play(move, currentRole);
-            int value = -negamax(nextBoard, depth + 1, -beta, -alpha, opponentRole);
-            maxValue = Math.max(maxValue, value);
+        for (int i = 0; move != null; i++, move = picker.next()) {
+            // Only the moves that could be pruned or reduced are asked if they are quiet
+            boolean quiet = (futile ? i > 0 : reducible && i >= LMR_FULL_MOVES) && selectivity.isQuiet(board, currentRole, move);
+            line[depth] = move;
+            Board nextBoard = playMove(board, move, currentRole);
+            boolean forcing = (extending || quiet) && selectivity.extension(nextBoard, currentRole, move) > 0;
+            if (quiet && futile && !forcing) {
+                undoMove(board);
+                maxValue = Math.max(maxValue, futilityValue); // Cannot reach alpha: not searched
+                continue;
+            }
+            int extension = extending && forcing && depth + remaining < 2 * depthLimit ? 1 : 0;
+            int childRemaining = remaining - 1 + extension;
+            int value = Integer.MAX_VALUE; // Not searched yet
+            if (reducible && quiet && !forcing && i >= LMR_FULL_MOVES) {
+                value = -negamax(nextBoard, depth + 1, childRemaining - 1, -alpha - 1, -alpha, opponentRole); // Reduced
+                if (value > alpha && !aborted) {
+                    counters.research(); // Better than expected: searched again at full depth
+                }
+            }
+            if (value > alpha && !aborted) {
+                if (!pvs || i == 0) {
+                    value = -negamax(nextBoard, depth + 1, childRemaining, -beta, -alpha, opponentRole);
+                } else {
+                    value = -negamax(nextBoard, depth + 1, childRemaining, -alpha - 1, -alpha, opponentRole); // Null window
+                    if (value > alpha && value < beta && !aborted) {
+                        counters.research();
+                        value = -negamax(nextBoard, depth + 1, childRemaining, -beta, -alpha, opponentRole);
+                    }
+                }
+            }
+            undoMove(board);
+            if (aborted) {
+                return 0; // Unwind without storing anything
+            }
+            if (value > maxValue) {
+                maxValue = value;
+                bestMove = picker.moveId();
+            }
             alpha = Math.max(alpha, value);
 
             // Beta cutoff (pruning)
             if (alpha >= beta) {
+                counters.cutoff(i);
+                if (ordering) {
+                    orderer.cutoff(board, currentRole, move, depth, previousMove(depth), remaining);
+                }
                 break;
             }
         }
 
+        if (hashing) {
+            storeResult(key, maxValue, remaining, alphaOrig, beta, bestMove);
+        }
         return maxValue;
     }
+
+    /**
+     * Value given to the futile quiet moves of a node: its static value plus the futility margin, when it
+     * cannot reach alpha
+     * @param board current board state
+     * @param remaining depth that remains to be searched below the node
+     * @param alpha current alpha
+     * @param role role of the player to move
+     * @return an upper bound of the value of the quiet moves, or Integer.MIN_VALUE if they must be searched
+     */
+    private int futilityValue(Board board, int remaining, int alpha, Role role) {
+        int margin = selectivity.futilityMargin(remaining);
+        if (margin <= 0) {
+            return Integer.MIN_VALUE;
+        }
+        long bound = (long) evaluate(board, role) + margin;
+        return bound <= alpha ? (int) bound : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Checks if the player to move must answer a threat (never when the board is not an ITacticalBoard)
+     */
+    private boolean isThreatened(Board board, Role role) {
+        return board instanceof ITacticalBoard && asTactical(board).isThreatened(role);
+    }
+
+    /**
+     * Checks the deadline and the stop signal (only every 256 nodes to keep them out of the hot path)
+     * @return true if the current iteration must be abandoned
+     */
+    private boolean isTimeUp() {
+        if (!aborted && (counters.nodes() & 0xFF) == 0
+                && ((deadline != 0L && System.nanoTime() > deadline) || (stopSignal != null && stopSignal.get()))) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /*
+     * PRIVATE METHODS - MOVE ORDERING ===============
+     */
+
+    /**
+     * Prepares the move picker of a node
+     * @param board current board state
+     * @param role role of the player to move
+     * @param depth current depth in the search tree
+     * @param entry packed transposition table entry (0 if none)
+     * @return the picker, reused by the nodes of the same depth
+     */
+    private MovePicker<Move, Role, Board> startPicker(Board board, Role role, int depth, long entry) {
+        while (pickers.size() <= depth) {
+            pickers.add(new MovePicker<>(counters));
+        }
+        MovePicker<Move, Role, Board> picker = pickers.get(depth);
+        int hashId = entry == 0L ? TranspositionTable.NO_MOVE : TranspositionTable.moveOf(entry);
+        picker.start(board, role, depth, previousMove(depth), hashId, ordering ? orderer : null, staging);
+        return picker;
+    }
+
+    /**
+     * Move that led to a node
+     * @param depth depth of the node
+     * @return the last move played before the node, or null at the root
+     */
+    @SuppressWarnings("unchecked")
+    private Move previousMove(int depth) {
+        return depth > 0 ? (Move) line[depth - 1] : null;
+    }
+
+    /*
+     * PRIVATE METHODS - QUIESCENCE SEARCH ===============
+
+     */
+
+    /**
+     * Quiescence search below the depth limit (negamax form): the tactical moves are searched first, then all the
+     * replies if the player to move is threatened. A player that is not threatened may also keep the static
+     * value of the position (stand pat) instead of playing a tactical move.
+     * @param board current board state (an ITacticalBoard)
+     * @param qdepth number of plies already searched below the depth limit
+     * @param alpha best value for the player to move along the path
+     * @param beta best value for the opponent along the path (negated)
+     * @param role role of the player to move
+     * @return the value of the position for the player to move
+     */
+    private int quiesce(Board board, int qdepth, int alpha, int beta, Role role) {
+        counters.quiescenceNode();
+        if (board.isGameOver()) {
+            return evaluate(board, role);
+        }
+
+        ITacticalBoard<Move, Role, Board> tactical = asTactical(board);
+        Role opponentRole = role.equals(playerMaxRole) ? playerMinRole : playerMaxRole;
+        boolean searchReplies = qdepth < QUIESCENCE_REPLIES_MAX && tactical.isThreatened(role);
+        int bestValue = Integer.MIN_VALUE;
+
+        // Stand pat: the static value is a lower bound, unless a threat must be answered
+        if (!searchReplies) {
+            bestValue = evaluate(board, role);
+            if (bestValue >= beta) {
+                return bestValue;
+            }
+            alpha = Math.max(alpha, bestValue);
+        }
+
+        counters.moveGeneration();
+        ArrayList<Move> moves = tactical.tacticalMoves(role);
+        int captures = moves.size();
+        if (searchReplies) {
+            counters.moveGeneration();
+            for (Move move : board.possibleMoves(role)) { // Tactical moves first, then the other replies
+                if (!moves.subList(0, captures).contains(move)) {
+                    moves.add(move);
+                }
+            }
+        }
+
+        for (Move move : moves) {
+            Board nextBoard = playMove(board, move, role);
+            int value = -quiesce(nextBoard, qdepth + 1, negate(beta), negate(alpha), opponentRole);
+            undoMove(board);
+            if (value > bestValue) {
+                bestValue = value;
+            }
+            alpha = Math.max(alpha, value);
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        return bestValue == Integer.MIN_VALUE ? evaluate(board, role) : bestValue; // Threatened without any move
+    }
+
+    /**
+     * Calls the heuristic from the point of view of a player (the endgame tables first, if any)
+     * @param board current board state
+     * @param role role of the player
+     * @return the value of the board for that player, within [-SCORE_MAX, SCORE_MAX]
+     */
+    private int evaluate(Board board, Role role) {
+        counters.evaluation();
+        if (endgameTable != null) {
+            int exact = endgameTable.probe(board, role);
+            if (exact != IEndgameTable.NOT_FOUND) {
+                return Math.max(-SCORE_MAX, Math.min(SCORE_MAX, exact));
+            }
+        }
+        int eval = Math.max(-SCORE_MAX, Math.min(SCORE_MAX, h.eval(board, playerMaxRole)));
+        return role.equals(playerMaxRole) ? eval : -eval;
+    }
+
+    /**
+     * Negates a value or a bound, without overflow for Integer.MIN_VALUE
+     */
+    private static int negate(int value) {
+        return value == Integer.MIN_VALUE ? Integer.MAX_VALUE : -value;
+    }
+
+    /*
+     * PRIVATE METHODS - TRANSPOSITION TABLE ===============
+     */
+
+    /**
+     * Key of a node: the position key, distinguished by the role to move
+     * @param board current board state
+     * @param role role of the player to move
+     * @return the key used in the transposition table
+     */
+    private long nodeKey(Board board, Role role) {
+        long key = ((IHashableBoard) board).hashKey();
+        return role.equals(playerMinRole) ? key ^ MIN_TO_MOVE_KEY : key;
+    }
+
+    /**
+     * Checks if a table entry is enough to return without searching
+     * @param entry packed entry (0 if none)
+     * @param remaining depth that remains to be searched below the node
+     * @param alpha current alpha
+     * @param beta current beta
+     * @return true if the stored score can be returned as is
+     */
+    private boolean isUsable(long entry, int remaining, int alpha, int beta) {
+        int depth = TranspositionTable.depthOf(entry);
+        if (entry == 0L || depth < remaining || (exactDepthProbe && depth != remaining)) {
+            return false;
+        }
+        int score = TranspositionTable.scoreOf(entry);
+        switch (TranspositionTable.boundOf(entry)) {
+            case TranspositionTable.BOUND_EXACT:
+                return true;
+            case TranspositionTable.BOUND_LOWER:
+                return score >= beta;
+            case TranspositionTable.BOUND_UPPER:
+                return score <= alpha;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Stores the result of a node, with the bound type given by the window it was searched with
+     */
+    private void storeResult(long key, int value, int remaining, int alpha, int beta, int bestMove) {
+        int bound;
+        if (value <= alpha) {
+            bound = TranspositionTable.BOUND_UPPER;
+        } else if (value >= beta) {
+            bound = TranspositionTable.BOUND_LOWER;
+        } else {
+            bound = TranspositionTable.BOUND_EXACT;
+        }
+        tt.store(key, value, remaining, bound, bestMove);
+    }
+
+    /*
+     * PRIVATE METHODS - BOARD UPDATES ===============
+     */
+
+    /**
+     * Plays a move, in place when the board supports it
+     * @param board current board state
+     * @param move move to play
+     * @param role role of the player making the move
+     * @return the successor board (the same instance when played in place)
+     */
+    private Board playMove(Board board, Move move, Role role) {
+        if (inPlace) {
+            asUndoable(board).makeMove(move, role);
+            return board;
+        }
+        return board.play(move, role);
+    }
+
+    /**
+     * Undoes the last move played with playMove (nothing to do when successors are copies)
+     * @param board current board state
+     */
+    private void undoMove(Board board) {
+        if (inPlace) {
+            asUndoable(board).unmakeMove();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private IUndoableBoard<Move, Role, Board> asUndoable(Board board) {
+        return (IUndoableBoard<Move, Role, Board>) board;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ITacticalBoard<Move, Role, Board> asTactical(Board board) {
+        return (ITacticalBoard<Move, Role, Board>) board;
+    }
 }
@@ -0,0 +1,213 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.IHeuristic;
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+import iialib.games.model.IUndoableBoard;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lazy SMP search: several threads run the same iterative deepening AlphaBeta search on the same position and
+ * only communicate through a shared transposition table (lock-free, see TranspositionTable).
+ *
+ * The calling thread runs the main search, with the time limit. Helper threads start one ply deeper every other
+ * thread so that they fill the table ahead of it, and are stopped as soon as the main search returns.
+ * The move returned is the one of the deepest completed iteration (the main search wins ties).
+ *
+ * The board should implement IHashableBoard, otherwise the threads just search the same tree independently.
+ */
+public class LazySMP<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>>
+        implements GameAlgorithm<Move, Role, Board> {
+
+    // Constants
+    /** Default size of the shared transposition table in megabytes */
+    private final static int TT_SIZE_DEFAUT = 64;
+
+    // Attributes
+    /** Role of the max player */
+    private final Role playerMaxRole;
+
+    /** Role of the min player */
+    private final Role playerMinRole;
+
+    /** Heuristic used by the max player */
+    private final IHeuristic<Board, Role> h;
+
+    /** Algorithm max depth */
+    private final int depthMax;
+
+    /** Number of searching threads, the calling thread included */
+    private int threads;
+
+    /** Time allowed for each bestMove call in milliseconds (0 = search until depthMax) */
+    private long timeLimitMillis;
+
+    /** Transposition table shared by all the threads */
+    private final TranspositionTable tt;
+
+    /** Threads running the helper searches (created on first use) */
+    private ExecutorService helpers;
+
+    /** Depth of the result returned by the last search */
+    private int completedDepth;
+
+    /** Nodes developed by all the threads during the last search (for stats) */
+    private long nbNodes;
+
+    // --------- Constructors ---------
+
+    public LazySMP(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h, int depthMax, int threads) {
+        this(playerMaxRole, playerMinRole, h, depthMax, threads, TT_SIZE_DEFAUT);
+    }
+
+    public LazySMP(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h, int depthMax, int threads, int ttSizeMb) {
+        this.playerMaxRole = playerMaxRole;
+        this.playerMinRole = playerMinRole;
+        this.h = h;
+        this.depthMax = depthMax;
+        this.threads = Math.max(1, threads);
+        this.tt = new TranspositionTable(ttSizeMb);
+    }
+
+    /*
+     * IAlgo METHODS =============
+     */
+
+    @Override
+    public Move bestMove(Board board, Role playerRole) {
+        ArrayList<Move> moves = board.possibleMoves(playerRole);
+        if (moves == null || moves.isEmpty()) {
+            return null;
+        }
+
+        tt.newSearch(); // Once per move: the searchers do not advance the generation of a shared table
+        AtomicBoolean stop = new AtomicBoolean();
+
+        // One searcher per thread, all on the same table and stop signal
+        ArrayList<AlphaBeta<Move, Role, Board>> searchers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            AlphaBeta<Move, Role, Board> searcher = new AlphaBeta<>(playerMaxRole, playerMinRole, h, depthMax);
+            searcher.joinSharedSearch(tt, stop, 1 + (i & 1)); // Odd helpers stay one ply ahead
+            searchers.add(searcher);
+        }
+        AlphaBeta<Move, Role, Board> main = searchers.get(0);
+        main.setTimeLimit(timeLimitMillis);
+
+        // Helpers: started first, each one on its own copy of the board
+        ArrayList<Future<Move>> helperResults = new ArrayList<>();
+        if (threads > 1) {
+            if (helpers == null) {
+                helpers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                    Thread thread = new Thread(runnable, "lazy-smp-helper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            for (int i = 1; i < threads; i++) {
+                AlphaBeta<Move, Role, Board> helper = searchers.get(i);
+                Board helperBoard = copyOf(board);
+                helperResults.add(helpers.submit(() -> helper.bestMove(helperBoard, playerRole)));
+            }
+        }
+
+        // Main search, then stop the helpers and wait for them
+        Move bestMove = main.bestMove(copyOf(board), playerRole);
+        completedDepth = main.getCompletedDepth();
+        stop.set(true);
+
+        nbNodes = main.getNbNodes();
+        for (int i = 1; i < threads; i++) {
+            Move helperMove = waitFor(helperResults.get(i - 1));
+            AlphaBeta<Move, Role, Board> helper = searchers.get(i);
+            nbNodes += helper.getNbNodes();
+            if (helperMove != null && helper.getCompletedDepth() > completedDepth) {
+                bestMove = helperMove;
+                completedDepth = helper.getCompletedDepth();
+            }
+        }
+
+        return bestMove;
+    }
+
+    /*
+     * PUBLIC METHODS ==============
+     */
+
+    public String toString() {
+        return "LazySMP(ProfMax=" + depthMax + ", Threads=" + threads + ")";
+    }
+
+    /**
+     * Limits the time of each bestMove call: the main search deepens until the time runs out
+     * @param millis time allowed per move in milliseconds (0 to always search until the max depth)
+     */
+    public void setTimeLimit(long millis) {
+        this.timeLimitMillis = millis;
+    }
+
+    /**
+     * Changes the number of searching threads
+     * @param threads number of threads, the calling thread included
+     */
+    public void setThreads(int threads) {
+        if (helpers != null) {
+            helpers.shutdown();
+            helpers = null;
+        }
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Stops the helper threads (the algorithm can still be used, they are created again when needed)
+     */
+    public void shutdown() {
+        setThreads(threads);
+    }
+
+    /**
+     * Returns the depth of the move returned by the last search
+     * @return depth fully searched
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of nodes developed by all the threads during the last search
+     * @return number of internally visited nodes
+     */
+    public long getNbNodes() {
+        return nbNodes;
+    }
+
+    /*
+     * PRIVATE METHODS ===============
+     */
+
+    @SuppressWarnings("unchecked")
+    private Board copyOf(Board board) {
+        if (board instanceof IUndoableBoard) {
+            return ((IUndoableBoard<Move, Role, Board>) board).copy();
+        }
+        return board; // Immutable boards can be shared
+    }
+
+    private Move waitFor(Future<Move> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Lazy SMP helper search failed", e.getCause());
+        }
+    }
+}
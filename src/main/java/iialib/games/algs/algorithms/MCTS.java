@@ -0,0 +1,717 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.IPlayoutPolicy;
+import iialib.games.model.IBoard;
+import iialib.games.model.IHashableBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+import iialib.games.model.IStagedBoard;
+import iialib.games.model.IUndoableBoard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monte Carlo Tree Search: the tree grows one node per playout, toward the moves that won the most playouts.
+ *
+ * Each iteration selects a path with UCT (optionally mixed with the RAVE statistics of the moves, the "all
+ * moves as first" values), expands the last node, plays a playout to the end with the playout policy and
+ * backs its result up the path. The move returned is the most visited one. No heuristic is needed.
+ *
+ * The tree is stored in primitive arrays (one slot per node, the children of a node are contiguous), and the
+ * search plays on a single copy of the board with makeMove / unmakeMove : the board must implement
+ * IUndoableBoard. RAVE needs the move codes of an IStagedBoard, tree reuse the keys of an IHashableBoard.
+ *
+ * With several threads the search is root-parallel: each thread grows its own tree on its own copy of the
+ * board, and the visits of the root moves are summed at the end.
+ */
+public class MCTS<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>>
+        implements GameAlgorithm<Move, Role, Board> {
+
+    // Constants
+    /** Default exploration constant of UCT (results are between 0 and 1) */
+    private final static double EXPLORATION_DEFAUT = 0.7;
+
+    /** Default number of visits for which UCT and RAVE values have the same weight */
+    private final static int RAVE_EQUIVALENCE_DEFAUT = 300;
+
+    /** Default number of playouts of a bestMove call without time limit */
+    private final static int PLAYOUTS_DEFAUT = 10_000;
+
+    /** Default maximum number of nodes of each tree */
+    private final static int NODES_MAX_DEFAUT = 1 << 20;
+
+    /** Playouts longer than this are counted as draws */
+    private final static int PLAYOUT_PLIES_MAX = 160;
+
+    /** Depth of the tree below which nodes are no longer expanded (with the playout, fits an undo stack of 256) */
+    private final static int TREE_DEPTH_MAX = 64;
+
+    /** Number of move codes of an IStagedBoard */
+    private final static int MOVE_CODES = 1 << 16;
+
+    /** Value of an unvisited child in the selection, above any UCT value (plus its RAVE value) */
+    private final static double UNVISITED_VALUE = 1e9;
+
+    /** firstChild of a node whose children are not generated yet */
+    private final static int UNEXPANDED = -1;
+
+    // Attributes
+    /** Role of the max player */
+    private final Role playerMaxRole;
+
+    /** Role of the min player */
+    private final Role playerMinRole;
+
+    /** Policy of the playouts, shared by the threads */
+    private final IPlayoutPolicy<Move, Role, Board> policy;
+
+    /** Exploration constant of UCT */
+    private double exploration = EXPLORATION_DEFAUT;
+
+    /** True to mix the RAVE values with the UCT values (only with an IStagedBoard) */
+    private boolean rave;
+
+    /** Number of visits for which UCT and RAVE values have the same weight */
+    private int raveEquivalence = RAVE_EQUIVALENCE_DEFAUT;
+
+    /** Time allowed for each bestMove call in milliseconds (0 = stop after playoutsLimit playouts) */
+    private long timeLimitMillis;
+
+    /** Playouts of a bestMove call, all threads together (0 = no limit, with a time limit) */
+    private int playoutsLimit = PLAYOUTS_DEFAUT;
+
+    /** Maximum number of nodes of each tree: the leaves are no longer expanded once it is reached */
+    private int nodesMax = NODES_MAX_DEFAUT;
+
+    /** True to keep the subtree of the new position from one bestMove call to the next */
+    private boolean treeReuse;
+
+    /** Number of searching threads, the calling thread included */
+    private int threads = 1;
+
+    /** Seed of the random generators of the threads */
+    private long seed;
+
+    /** One searcher per thread (created on first use, kept for tree reuse) */
+    private final ArrayList<Searcher> searchers = new ArrayList<>();
+
+    /** Threads running the other searchers (created on first use) */
+    private ExecutorService workers;
+
+    /** Playouts of the last search, all threads together (for stats) */
+    private long playouts;
+
+    /** Duration of the last search in nanoseconds */
+    private long elapsedNanos;
+
+    /** Visits of the root reused from the previous search (for stats) */
+    private long reusedVisits;
+
+    // --------- Constructors ---------
+
+    public MCTS(Role playerMaxRole, Role playerMinRole, IPlayoutPolicy<Move, Role, Board> policy) {
+        this.playerMaxRole = playerMaxRole;
+        this.playerMinRole = playerMinRole;
+        this.policy = policy;
+    }
+
+    public MCTS(Role playerMaxRole, Role playerMinRole, IPlayoutPolicy<Move, Role, Board> policy, long timeLimitMillis) {
+        this(playerMaxRole, playerMinRole, policy);
+        setTimeLimit(timeLimitMillis);
+    }
+
+    /*
+     * IAlgo METHODS =============
+     */
+
+    @Override
+    public Move bestMove(Board board, Role playerRole) {
+        if (!(board instanceof IUndoableBoard)) {
+            throw new IllegalArgumentException("MCTS needs a board implementing IUndoableBoard");
+        }
+        ArrayList<Move> moves = board.possibleMoves(playerRole);
+        if (moves == null || moves.isEmpty()) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        long deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1_000_000 : Long.MAX_VALUE;
+        int perThread = playoutsLimit > 0 ? Math.max(1, playoutsLimit / threads) : Integer.MAX_VALUE;
+
+        while (searchers.size() < threads) {
+            searchers.add(new Searcher(new SplittableRandom(seed + searchers.size())));
+        }
+        reusedVisits = 0;
+        for (int i = 0; i < threads; i++) {
+            searchers.get(i).start(board, playerRole);
+            reusedVisits += searchers.get(i).tree.visits[0];
+        }
+
+        // Other searchers on the workers, the first one on the calling thread
+        ArrayList<Future<?>> results = new ArrayList<>();
+        if (threads > 1) {
+            if (workers == null) {
+                workers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                    Thread thread = new Thread(runnable, "mcts-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            for (int i = 1; i < threads; i++) {
+                Searcher searcher = searchers.get(i);
+                results.add(workers.submit(() -> searcher.run(deadline, perThread)));
+            }
+        }
+        searchers.get(0).run(deadline, perThread);
+        for (Future<?> result : results) {
+            waitFor(result);
+        }
+
+        // Visits of the root moves, summed over the trees (matched by move: the trees may be expanded differently)
+        Tree main = searchers.get(0).tree;
+        int first = main.firstChild[0];
+        int count = main.childCount[0];
+        long[] visits = new long[count];
+        double[] wins = new double[count];
+        playouts = 0;
+        for (int i = 0; i < threads; i++) {
+            Searcher searcher = searchers.get(i);
+            playouts += searcher.playouts;
+            Tree tree = searcher.tree;
+            int end = tree.firstChild[0] + tree.childCount[0];
+            for (int c = tree.firstChild[0]; c < end; c++) {
+                for (int j = 0; j < count; j++) {
+                    if (main.moves[first + j].equals(tree.moves[c])) {
+                        visits[j] += tree.visits[c];
+                        wins[j] += tree.wins[c];
+                        break;
+                    }
+                }
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+
+        int best = 0;
+        for (int j = 1; j < count; j++) {
+            if (visits[j] > visits[best] || (visits[j] == visits[best] && wins[j] > wins[best])) {
+                best = j;
+            }
+        }
+        return count == 0 ? moves.get(0) : move(main, first + best);
+    }
+
+    /*
+     * PUBLIC METHODS ==============
+     */
+
+    public String toString() {
+        return "MCTS(Threads=" + threads + (rave ? ", RAVE" : "") + (treeReuse ? ", Reuse" : "") + ")";
+    }
+
+    /**
+     * Limits the time of each bestMove call
+     * @param millis time allowed per move in milliseconds (0 to stop after the playouts limit)
+     */
+    public void setTimeLimit(long millis) {
+        this.timeLimitMillis = millis;
+    }
+
+    /**
+     * Limits the number of playouts of each bestMove call
+     * @param playouts playouts of all the threads together (0 for no limit, with a time limit)
+     */
+    public void setPlayoutsLimit(int playouts) {
+        this.playoutsLimit = playouts;
+    }
+
+    /**
+     * Changes the exploration constant of UCT
+     * @param exploration weight of the exploration term (sqrt(2) in the theory, less in practice)
+     */
+    public void setExploration(double exploration) {
+        this.exploration = exploration;
+    }
+
+    /**
+     * Mixes the RAVE values ("all moves as first": the results of the playouts where the move was played later
+     * by the same player) with the UCT values, which gives a first estimate of the moves rarely visited
+     * @param enabled true to use RAVE (ignored if the board does not implement IStagedBoard)
+     */
+    public void setRave(boolean enabled) {
+        this.rave = enabled;
+    }
+
+    /**
+     * Changes the weight of the RAVE values
+     * @param visits number of visits of a move for which its UCT and RAVE values have the same weight
+     */
+    public void setRaveEquivalence(int visits) {
+        this.raveEquivalence = Math.max(1, visits);
+    }
+
+    /**
+     * Keeps the tree from one bestMove call to the next: the subtree of the new position (after the move played
+     * and the reply of the opponent) becomes the new tree
+     * @param enabled true to reuse the tree (ignored if the board does not implement IHashableBoard)
+     */
+    public void setTreeReuse(boolean enabled) {
+        this.treeReuse = enabled;
+    }
+
+    /**
+     * Limits the size of the trees
+     * @param nodes maximum number of nodes of each tree (one per thread)
+     */
+    public void setNodesMax(int nodes) {
+        this.nodesMax = Math.max(2, nodes);
+    }
+
+    /**
+     * Changes the seed of the random generators (the trees are forgotten)
+     * @param seed seed of the first thread, the others use the following ones
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        searchers.clear();
+    }
+
+    /**
+     * Changes the number of searching threads (the trees are forgotten)
+     * @param threads number of threads, the calling thread included
+     */
+    public void setThreads(int threads) {
+        if (workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
+        searchers.clear();
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Stops the worker threads (the algorithm can still be used, they are created again when needed)
+     */
+    public void shutdown() {
+        setThreads(threads);
+    }
+
+    /**
+     * Returns the number of playouts of the last search
+     * @return playouts of all the threads together
+     */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * Returns the speed of the last search
+     * @return playouts per second, all threads together
+     */
+    public long getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * Returns the visits of the root kept from the previous search by tree reuse
+     * @return visits of the reused roots, all threads together
+     */
+    public long getReusedVisits() {
+        return reusedVisits;
+    }
+
+    /**
+     * Returns the size of the tree of the calling thread after the last search
+     * @return number of nodes
+     */
+    public int getTreeSize() {
+        return searchers.isEmpty() ? 0 : searchers.get(0).tree.size;
+    }
+
+    /*
+     * PRIVATE METHODS ===============
+     */
+
+    private Role opponent(Role role) {
+        return role == playerMaxRole ? playerMinRole : playerMaxRole;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Move move(Tree tree, int node) {
+        return (Move) tree.moves[node];
+    }
+
+    private void waitFor(Future<?> result) {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("MCTS worker search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Nodes of a tree, one slot per node in each array. The root is node 0, and the children of a node are the
+     * childCount[node] nodes from firstChild[node]. The results are counted for the player who played the move
+     * leading to the node (a win counts 1, a draw 1/2).
+     */
+    private static final class Tree {
+
+        private final static int INITIAL_CAPACITY = 1 << 12;
+
+        int[] firstChild;
+        int[] childCount;
+        int[] visits;
+        double[] wins;
+        int[] raveVisits;
+        double[] raveWins;
+        int[] codes; // Move code for RAVE, -1 if none
+        Object[] moves;
+        int[] origin; // Node of the old tree while copying a subtree
+        int size;
+
+        Tree() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        /**
+         * Makes room for count more nodes, growing the arrays up to max nodes
+         * @return false if the tree would have more than max nodes
+         */
+        boolean reserve(int count, int max) {
+            int needed = size + count;
+            if (needed <= firstChild.length) return true;
+            if (needed > max) return false;
+            allocate(Math.min(max, Math.max(needed, 2 * firstChild.length)));
+            return true;
+        }
+
+        int add(Object move, int code) {
+            int node = size++;
+            firstChild[node] = UNEXPANDED;
+            childCount[node] = 0;
+            visits[node] = 0;
+            wins[node] = 0;
+            raveVisits[node] = 0;
+            raveWins[node] = 0;
+            codes[node] = code;
+            moves[node] = move;
+            return node;
+        }
+
+        /**
+         * Replaces this tree by the subtree of another one (the other tree is not modified)
+         * @param from the other tree
+         * @param root the root of the subtree in from
+         */
+        void copySubtree(Tree from, int root) {
+            clear();
+            copyNode(from, root);
+            for (int i = 0; i < size; i++) { // Breadth first: the children of a node stay contiguous
+                int old = origin[i];
+                if (from.firstChild[old] == UNEXPANDED) continue;
+                int count = from.childCount[old];
+                reserve(count, Integer.MAX_VALUE); // Smaller than the other tree
+                firstChild[i] = size;
+                childCount[i] = count;
+                for (int k = 0; k < count; k++) {
+                    copyNode(from, from.firstChild[old] + k);
+                }
+            }
+            Arrays.fill(moves, size, moves.length, null); // Forget the moves of the old nodes
+        }
+
+        private void copyNode(Tree from, int old) {
+            reserve(1, Integer.MAX_VALUE);
+            int node = add(from.moves[old], from.codes[old]);
+            visits[node] = from.visits[old];
+            wins[node] = from.wins[old];
+            raveVisits[node] = from.raveVisits[old];
+            raveWins[node] = from.raveWins[old];
+            origin[node] = old;
+        }
+
+        private void allocate(int capacity) {
+            firstChild = firstChild == null ? new int[capacity] : Arrays.copyOf(firstChild, capacity);
+            childCount = childCount == null ? new int[capacity] : Arrays.copyOf(childCount, capacity);
+            visits = visits == null ? new int[capacity] : Arrays.copyOf(visits, capacity);
+            wins = wins == null ? new double[capacity] : Arrays.copyOf(wins, capacity);
+            raveVisits = raveVisits == null ? new int[capacity] : Arrays.copyOf(raveVisits, capacity);
+            raveWins = raveWins == null ? new double[capacity] : Arrays.copyOf(raveWins, capacity);
+            codes = codes == null ? new int[capacity] : Arrays.copyOf(codes, capacity);
+            moves = moves == null ? new Object[capacity] : Arrays.copyOf(moves, capacity);
+            origin = origin == null ? new int[capacity] : Arrays.copyOf(origin, capacity);
+        }
+    }
+
+    /**
+     * Search of one thread: its own tree, board copy, random generator and buffers (nothing is allocated by an
+     * iteration, except the move list of an expanded node)
+     */
+    private final class Searcher {
+
+        private final SplittableRandom random;
+
+        /** Current tree, and the one the reused subtree is copied into */
+        private Tree tree = new Tree();
+        private Tree spare;
+
+        /** Copy of the root position, back to the root after each iteration */
+        private Board board;
+        private Role rootRole;
+        private boolean useRave;
+
+        /** Nodes of the current path (path[0] is the root), move codes from the root, then of the playout */
+        private final int[] path = new int[TREE_DEPTH_MAX + 1];
+        private final int[] pathCodes = new int[TREE_DEPTH_MAX];
+        private final int[] playoutCodes = new int[PLAYOUT_PLIES_MAX];
+
+        /** Move codes played in the current iteration by each player (root player: even plies), marked by stamp */
+        private int[] amafEven;
+        private int[] amafOdd;
+        private int stamp;
+
+        /** Playouts of the last search */
+        private long playouts;
+
+        Searcher(SplittableRandom random) {
+            this.random = random;
+        }
+
+        /**
+         * Prepares the search of a position: reuses the subtree of the position if the previous tree has it
+         */
+        @SuppressWarnings("unchecked")
+        void start(Board rootBoard, Role role) {
+            int reused = treeReuse ? findPosition(rootBoard, role) : UNEXPANDED;
+            if (reused > 0) {
+                if (spare == null) {
+                    spare = new Tree();
+                }
+                spare.copySubtree(tree, reused);
+                Tree old = tree;
+                tree = spare;
+                spare = old;
+            } else if (reused == UNEXPANDED) {
+                tree.clear();
+                tree.add(null, -1);
+            }
+
+            board = ((IUndoableBoard<Move, Role, Board>) rootBoard).copy();
+            rootRole = role;
+            useRave = rave && board instanceof IStagedBoard;
+            if (useRave && amafEven == null) {
+                amafEven = new int[MOVE_CODES];
+                amafOdd = new int[MOVE_CODES];
+            }
+            playouts = 0;
+        }
+
+        /**
+         * Runs iterations until the deadline or the number of playouts
+         */
+        @SuppressWarnings("unchecked")
+        void run(long deadline, int playoutsMax) {
+            IUndoableBoard<Move, Role, Board> undoable = (IUndoableBoard<Move, Role, Board>) board;
+            while (playouts < playoutsMax && ((playouts & 15) != 0 || System.nanoTime() < deadline)) {
+                iterate(undoable);
+                playouts++;
+            }
+        }
+
+        /**
+         * One iteration: selection and expansion, playout, backpropagation
+         */
+        private void iterate(IUndoableBoard<Move, Role, Board> undoable) {
+            int node = 0;
+            int depth = 0;
+            Role role = rootRole;
+            path[0] = 0;
+            while (!board.isGameOver()) {
+                // A leaf is expanded on its second visit (the root at once)
+                if (tree.firstChild[node] == UNEXPANDED
+                    && ((node != 0 && tree.visits[node] == 0) || depth >= TREE_DEPTH_MAX || !expand(node, role))) {
+                    break;
+                }
+                if (tree.childCount[node] == 0) {
+                    break;
+                }
+                int child = select(node);
+                undoable.makeMove(move(tree, child), role);
+                pathCodes[depth] = tree.codes[child];
+                node = child;
+                path[++depth] = node;
+                role = opponent(role);
+            }
+
+            int plies = board.isGameOver() ? 0 : policy.playout(board, role, random, playoutCodes);
+            int result = policy.result(board, rootRole);
+            for (int i = plies + depth; i > 0; i--) {
+                undoable.unmakeMove();
+            }
+            backpropagate(depth, plies, result);
+        }
+
+        /**
+         * Generates the children of a node
+         * @return false if the tree is full
+         */
+        private boolean expand(int node, Role role) {
+            ArrayList<Move> moves = board.possibleMoves(role);
+            Move pass = moves.isEmpty() ? policy.passMove() : null;
+            int count = pass != null ? 1 : moves.size();
+            if (!tree.reserve(count, nodesMax)) {
+                return false;
+            }
+            tree.firstChild[node] = tree.size;
+            tree.childCount[node] = count;
+            if (pass != null) {
+                tree.add(pass, code(pass));
+            } else {
+                for (Move move : moves) {
+                    tree.add(move, code(move));
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Child of a node with the best UCT value (mixed with RAVE); the unvisited children first, best RAVE first
+         */
+        private int select(int node) {
+            int first = tree.firstChild[node];
+            int end = first + tree.childCount[node];
+            double logVisits = Math.log(Math.max(1, tree.visits[node]));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int c = first; c < end; c++) {
+                int visits = tree.visits[c];
+                double amaf = useRave && tree.raveVisits[c] > 0 ? tree.raveWins[c] / tree.raveVisits[c] : -1;
+                double value;
+                if (visits == 0) {
+                    value = UNVISITED_VALUE + amaf;
+                    if (!useRave) {
+                        return c;
+                    }
+                } else {
+                    value = tree.wins[c] / visits;
+                    if (amaf >= 0) {
+                        double beta = Math.sqrt(raveEquivalence / (3.0 * visits + raveEquivalence));
+                        value = (1 - beta) * value + beta * amaf;
+                    }
+                    value += exploration * Math.sqrt(logVisits / visits);
+                }
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Counts the result of the playout in the nodes of the path (and their siblings for RAVE)
+         * @param depth length of the path
+         * @param plies moves of the playout
+         * @param result result for the root player (1, 0 or -1)
+         */
+        private void backpropagate(int depth, int plies, int result) {
+            double reward = result > 0 ? 1.0 : result < 0 ? 0.0 : 0.5;
+            for (int d = depth; d > 0; d--) {
+                int node = path[d];
+                tree.visits[node]++;
+                tree.wins[node] += (d & 1) == 1 ? reward : 1.0 - reward; // Odd depth: move of the root player
+            }
+            tree.visits[0]++;
+            if (useRave) {
+                updateRave(depth, plies, reward);
+            }
+        }
+
+        /**
+         * Counts the result for each child of a node of the path whose move was played later in the iteration by
+         * the same player (from the bottom up, the moves played below a node are marked before it is reached)
+         */
+        private void updateRave(int depth, int plies, double reward) {
+            stamp++;
+            for (int i = 0; i < plies; i++) {
+                mark(depth + i, playoutCodes[i]);
+            }
+            for (int d = depth - 1; d >= 0; d--) {
+                mark(d, pathCodes[d]);
+                int[] played = (d & 1) == 0 ? amafEven : amafOdd;
+                double playerReward = (d & 1) == 0 ? reward : 1.0 - reward;
+                int node = path[d];
+                int end = tree.firstChild[node] + tree.childCount[node];
+                for (int c = tree.firstChild[node]; c < end; c++) {
+                    int code = tree.codes[c];
+                    if (code >= 0 && played[code] == stamp) {
+                        tree.raveVisits[c]++;
+                        tree.raveWins[c] += playerReward;
+                    }
+                }
+            }
+        }
+
+        private void mark(int ply, int code) {
+            if (code >= 0) {
+                ((ply & 1) == 0 ? amafEven : amafOdd)[code] = stamp;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private int code(Move move) {
+            return board instanceof IStagedBoard ? ((IStagedBoard<Move, Role, Board>) board).moveCode(move) : -1;
+        }
+
+        /**
+         * Looks in the previous tree for the new root position: the old root itself, or one of its descendants
+         * at the depth where the same player is to move (1 or 2 moves later)
+         * @return the node, or UNEXPANDED if not found
+         */
+        private int findPosition(Board rootBoard, Role role) {
+            if (board == null || tree.size == 0 || !(rootBoard instanceof IHashableBoard)) {
+                return UNEXPANDED;
+            }
+            long key = ((IHashableBoard) rootBoard).hashKey();
+            if (role == rootRole) {
+                if (((IHashableBoard) board).hashKey() == key) {
+                    return 0;
+                }
+                return findBelow(0, rootRole, 2, key);
+            }
+            return findBelow(0, rootRole, 1, key);
+        }
+
+        @SuppressWarnings("unchecked")
+        private int findBelow(int node, Role role, int remaining, long key) {
+            if (tree.firstChild[node] == UNEXPANDED) {
+                return UNEXPANDED;
+            }
+            IUndoableBoard<Move, Role, Board> undoable = (IUndoableBoard<Move, Role, Board>) board;
+            int end = tree.firstChild[node] + tree.childCount[node];
+            for (int c = tree.firstChild[node]; c < end; c++) {
+                undoable.makeMove(move(tree, c), role);
+                int found = remaining == 1
+                            ? (((IHashableBoard) board).hashKey() == key ? c : UNEXPANDED)
+                            : findBelow(c, opponent(role), remaining - 1, key);
+                undoable.unmakeMove();
+                if (found != UNEXPANDED) {
+                    return found;
+                }
+            }
+            return UNEXPANDED;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package iialib.games.algs.algorithms;
 
 import iialib.games.algs.GameAlgorithm;
 import iialib.games.algs.IHeuristic;
+import iialib.games.log.Log;
 import iialib.games.model.IBoard;
 import iialib.games.model.IMove;
 import iialib.games.model.IRole;
+import iialib.games.model.IUndoableBoard;
 
 import java.util.ArrayList;
 
@@ -34,13 +36,17 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 	private IHeuristic<Board, Role> h;
 
 	//
-	/** number of internally visited (developed) nodes (for stats)
+	/** counters of the current search (nodes, leaves, evaluations...)
      */
-	private int nbNodes;
-	
-	/** number of leaves nodes (for stats)
+	private final SearchStats.Counters counters = new SearchStats.Counters();
+
+	/** statistics of the last search
+     */
+	private SearchStats stats;
+
+	/** true while searching a board that supports makeMove/unmakeMove (set for each bestMove call)
      */
-	private int nbLeaves;
+	private boolean inPlace;
 
 	// --------- Constructors ---------
 
@@ -62,13 +68,29 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 
 	@Override
 	public Move bestMove(Board board, Role playerRole) {
-		System.out.println("[MiniMax]");
+		Log.debug("[MiniMax]");
 
 		// Reset statistics
-		nbNodes = 0;
-		nbLeaves = 0;
+		long start = System.nanoTime();
+		counters.reset();
+
+		Move bestMove = search(board, playerRole);
+		if (bestMove != null) {
+			counters.iterationCompleted(); // A single iteration, at depthMax
+		}
+		stats = counters.snapshot(System.nanoTime() - start, bestMove == null ? 0 : depthMax);
+		return bestMove;
+	}
 
+	/**
+	 * Searches all the moves down to the max depth
+	 * @param board current board state
+	 * @param playerRole role of the player to move
+	 * @return the best move, or null if the player cannot move
+	 */
+	private Move search(Board board, Role playerRole) {
         // Get all possible moves for the current player
+        counters.moveGeneration();
         ArrayList<Move> moves = board.possibleMoves(playerRole);
 
         // If no moves are possible, return null
@@ -76,14 +98,21 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
             return null;
         }
 
+        // Undoable boards are copied once and then modified in place during the whole search
+        inPlace = board instanceof IUndoableBoard;
+        if(inPlace) {
+            board = asUndoable(board).copy();
+        }
+
         Move bestMove = null;
 
         if(playerRole == playerMaxRole) {
             // MAX player: maximize the value
             int bestValue = Integer.MIN_VALUE;
             for(Move move : moves) {
-                Board nextBoard = board.play(move, playerRole);
+                Board nextBoard = playMove(board, move, playerRole);
                 int value = minMax(nextBoard, 1);
+                undoMove(board);
                 if(value > bestValue) {
                     bestValue = value;
                     bestMove = move;
@@ -93,8 +122,9 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
             // MIN player: minimize the value
             int bestValue = Integer.MAX_VALUE;
             for(Move move : moves) {
-                Board nextBoard = board.play(move, playerRole);
+                Board nextBoard = playMove(board, move, playerRole);
                 int value = maxMin(nextBoard, 1);
+                undoMove(board);
                 if(value < bestValue) {
                     bestValue = value;
                     bestMove = move;
@@ -117,16 +147,24 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 	 * Returns the number of nodes developed during the search
 	 * @return number of internally visited nodes
 	 */
-	public int getNbNodes() {
-		return nbNodes;
+	public long getNbNodes() {
+		return counters.nodes();
 	}
 
 	/**
 	 * Returns the number of leaves visited during the search
 	 * @return number of leaf nodes
 	 */
-	public int getNbLeaves() {
-		return nbLeaves;
+	public long getNbLeaves() {
+		return counters.leaves();
+	}
+
+	/**
+	 * Returns the statistics of the last search, in the same form as AlphaBeta (without cutoffs)
+	 * @return snapshot taken at the end of the last bestMove call, or null before the first one
+	 */
+	public SearchStats getStats() {
+		return stats;
 	}
 
 	/*
@@ -140,27 +178,31 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 	 * @return the best value for the MAX player
 	 */
 	private int maxMin(Board board, int depth) {
-		nbNodes++;
+		counters.node(depth);
 
 		// Terminal conditions: game over or max depth reached
 		if (board.isGameOver() || depth >= depthMax) {
-			nbLeaves++;
+			counters.leaf(depth);
+			counters.evaluation();
 			return h.eval(board, playerMaxRole);
 		}
 
 		int maxValue = Integer.MIN_VALUE;
+        counters.moveGeneration();
         ArrayList<Move> moves = board.possibleMoves(playerMaxRole);
 
         if(moves == null || moves.isEmpty()) {
             // No possible moves for MAX player, evaluate the board
-            nbLeaves++;
+            counters.leaf(depth);
+            counters.evaluation();
             return h.eval(board, playerMaxRole);
         }
 
 		// Explore all possible moves for MAX player
-		for (Move move : board.possibleMoves(playerMaxRole)) {
-			Board nextBoard = board.play(move, playerMaxRole);
+		for (Move move : moves) {
+			Board nextBoard = playMove(board, move, playerMaxRole);
 			int value = minMax(nextBoard, depth + 1);
+			undoMove(board);
 			maxValue = Math.max(maxValue, value);
 		}
 
@@ -174,30 +216,64 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 	 * @return the best value for the MIN player (worst for MAX)
 	 */
 	private int minMax(Board board, int depth) {
-		nbNodes++;
+		counters.node(depth);
 
 		// Terminal conditions: game over or max depth reached
 		if (board.isGameOver() || depth >= depthMax) {
-			nbLeaves++;
+			counters.leaf(depth);
+			counters.evaluation();
 			return h.eval(board, playerMaxRole);
 		}
 
 		int minValue = Integer.MAX_VALUE;
+        counters.moveGeneration();
         ArrayList<Move> moves = board.possibleMoves(playerMinRole);
 
         if(moves == null || moves.isEmpty()) {
             // No possible moves for MIN player, evaluate the board
-            nbLeaves++;
+            counters.leaf(depth);
+            counters.evaluation();
             return h.eval(board, playerMaxRole);
         }
 
 		// Explore all possible moves for MIN player
-		for (Move move : board.possibleMoves(playerMinRole)) {
-			Board nextBoard = board.play(move, playerMinRole);
+		for (Move move : moves) {
+			Board nextBoard = playMove(board, move, playerMinRole);
 			int value = maxMin(nextBoard, depth + 1);
+			undoMove(board);
 			minValue = Math.min(minValue, value);
 		}
 
 		return minValue;
 	}
+
+	/**
+	 * Plays a move, in place when the board supports it
+	 * @param board current board state
+	 * @param move move to play
+	 * @param role role of the player making the move
+	 * @return the successor board (the same instance when played in place)
+	 */
+	private Board playMove(Board board, Move move, Role role) {
+		if (inPlace) {
+			asUndoable(board).makeMove(move, role);
+			return board;
+		}
+		return board.play(move, role);
+	}
+
+	/**
+	 * Undoes the last move played with playMove (nothing to do when successors are copies)
+	 * @param board current board state
+	 */
+	private void undoMove(Board board) {
+		if (inPlace) {
+			asUndoable(board).unmakeMove();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private IUndoableBoard<Move, Role, Board> asUndoable(Board board) {
+		return (IUndoableBoard<Move, Role, Board>) board;
+	}
 }
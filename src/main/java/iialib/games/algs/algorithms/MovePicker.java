@@ -0,0 +1,302 @@
+package iialib.games.algs.algorithms;
+
+import iialib.games.algs.IMoveOrderer;
+import iialib.games.model.IBoard;
+import iialib.games.model.IMove;
+import iialib.games.model.IRole;
+import iialib.games.model.IStagedBoard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Gives the moves of a node one at a time, in search order (one picker per depth, reused from node to node).
+ *
+ * Without staging, all the moves are generated by possibleMoves at the start of the node, then given by
+ * decreasing score of the move orderer (or in generation order, with the hash move first).
+ *
+ * With staging (an IStagedBoard), the moves are given in stages, each one generated only when the previous
+ * one is exhausted: the hash move, the tactical moves, the killer moves, then the quiet moves (by decreasing
+ * score of the move orderer). A cutoff in the first stages saves the generation of the quiet moves.
+ *
+ * Each move given has an id, stored as best move in the transposition table: its index in the generated list
+ * without staging, the move code of the board with staging.
+ */
+final class MovePicker<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>> {
+
+    // Constants
+    /** Stages of a staged node, in order */
+    private final static int STAGE_HASH = 0;
+    private final static int STAGE_TACTICAL = 1;
+    private final static int STAGE_KILLERS = 2; // STAGE_KILLERS + 1 : second killer
+    private final static int STAGE_QUIET = 4;
+    private final static int STAGE_DONE = 5;
+
+    // Attributes
+    /** Counters of the search, for the move generations */
+    private final SearchStats.Counters counters;
+
+    /** Node being searched */
+    private Board board;
+    private Role role;
+    private int ply;
+    private Move previous;
+    private IMoveOrderer<Move, Role, Board> orderer;
+    private boolean staged;
+
+    /** Moves of the current list (all the moves, the tactical moves or the quiet moves) */
+    private ArrayList<Move> moves;
+
+    /** Scores of the moves of the current list when it is ordered (Integer.MIN_VALUE once given) */
+    private int[] scores = new int[64];
+
+    /** True when the current list is given by decreasing score */
+    private boolean scored;
+
+    /** Number of moves of the current list already given */
+    private int given;
+
+    /** Index of the move swapped first by the hash move (NO_MOVE if none), without staging and orderer */
+    private int swappedIndex;
+
+    /** Current stage of a staged node */
+    private int stage;
+
+    /** Moves given before the quiet stage (null if not given), skipped when generated again */
+    private Move hashMove;
+    private Move killer1;
+    private Move killer2;
+
+    /** Tactical moves of a staged node (null until the tactical stage) */
+    private ArrayList<Move> tacticalMoves;
+
+    /** Id of the last move given */
+    private int lastId;
+
+    // --------- Constructors ---------
+
+    MovePicker(SearchStats.Counters counters) {
+        this.counters = counters;
+    }
+
+    /*
+     * METHODS ==============
+     */
+
+    /**
+     * Prepares the picker for a new node
+     * @param board current board state
+     * @param role role of the player to move
+     * @param ply depth of the node
+     * @param previous move that led to the node (null if unknown)
+     * @param hashId id of the best move stored in the transposition table, or NO_MOVE
+     * @param orderer move orderer (null to keep the generation order)
+     * @param staged true to generate the moves in stages (the board must implement IStagedBoard)
+     */
+    void start(Board board, Role role, int ply, Move previous, int hashId, IMoveOrderer<Move, Role, Board> orderer,
+               boolean staged) {
+        this.board = board;
+        this.role = role;
+        this.ply = ply;
+        this.previous = previous;
+        this.orderer = orderer;
+        this.staged = staged;
+        this.given = 0;
+        this.lastId = TranspositionTable.NO_MOVE;
+        this.swappedIndex = TranspositionTable.NO_MOVE;
+
+        if (staged) {
+            stage = STAGE_HASH;
+            moves = null;
+            tacticalMoves = null;
+            hashMove = hashId == TranspositionTable.NO_MOVE ? null : asStaged().moveOfCode(hashId);
+            if (hashMove != null && !board.isValidMove(hashMove, role)) {
+                hashMove = null; // Same key but another position, or another move code
+            }
+            killer1 = orderer == null ? null : orderer.killer(role, ply, 0);
+            killer2 = orderer == null ? null : orderer.killer(role, ply, 1);
+            return;
+        }
+
+        counters.moveGeneration();
+        moves = board.possibleMoves(role);
+        if (moves == null) {
+            moves = new ArrayList<>(0);
+        }
+        if (hashId >= moves.size()) {
+            hashId = TranspositionTable.NO_MOVE; // No longer valid
+        }
+        scored = orderer != null;
+        if (scored) {
+            orderer.scoreMoves(board, role, moves, ply, previous, hashId, scoreBuffer(moves.size()));
+        } else if (hashId > 0) {
+            Collections.swap(moves, 0, hashId);
+            swappedIndex = hashId;
+        }
+    }
+
+    /**
+     * Gives the next move to search
+     * @return the move, or null when all the moves have been given
+     */
+    Move next() {
+        if (!staged) {
+            return nextInList();
+        }
+
+        while (true) {
+            switch (stage) {
+                case STAGE_HASH:
+                    stage = STAGE_TACTICAL;
+                    if (hashMove != null) {
+                        lastId = asStaged().moveCode(hashMove);
+                        return hashMove;
+                    }
+                    break;
+
+                case STAGE_TACTICAL:
+                    if (tacticalMoves == null) {
+                        tacticalMoves = asStaged().tacticalMoves(role); // Not counted: a few bitboard tests
+                        moves = tacticalMoves;
+                        scored = false;
+                        given = 0;
+                    }
+                    Move tactical = nextInStage();
+                    if (tactical != null) {
+                        return tactical;
+                    }
+                    stage = STAGE_KILLERS;
+                    break;
+
+                case STAGE_KILLERS:
+                    // Killers are tried first; one that cannot be given is forgotten and left to the quiet stage
+                    stage = STAGE_QUIET;
+                    moves = null;
+                    if (!isPlayable(killer1, null)) {
+                        killer1 = null;
+                    }
+                    if (!isPlayable(killer2, killer1)) {
+                        killer2 = null;
+                    }
+                    if (killer1 != null) {
+                        stage = killer2 != null ? STAGE_KILLERS + 1 : STAGE_QUIET;
+                        lastId = asStaged().moveCode(killer1);
+                        return killer1;
+                    }
+                    if (killer2 != null) {
+                        lastId = asStaged().moveCode(killer2);
+                        return killer2;
+                    }
+                    break;
+
+                case STAGE_KILLERS + 1: // Second killer, after the first one
+                    stage = STAGE_QUIET;
+                    lastId = asStaged().moveCode(killer2);
+                    return killer2;
+
+                case STAGE_QUIET:
+                    if (moves == null) {
+                        counters.moveGeneration();
+                        moves = asStaged().quietMoves(role);
+                        given = 0;
+                        scored = orderer != null;
+                        if (scored) {
+                            orderer.scoreMoves(board, role, moves, ply, previous, TranspositionTable.NO_MOVE,
+                                               scoreBuffer(moves.size()));
+                        }
+                    }
+                    Move quiet = nextInStage();
+                    if (quiet != null) {
+                        return quiet;
+                    }
+                    stage = STAGE_DONE;
+                    break;
+
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the id of the last move given, to store it as the best move of the node
+     * @return the id, or NO_MOVE if the move has none
+     */
+    int moveId() {
+        return lastId;
+    }
+
+    /*
+     * PRIVATE METHODS ===============
+     */
+
+    /**
+     * Checks if a killer move can be given before the quiet moves
+     * @param killer the killer move (may be null)
+     * @param other the other killer already accepted (null if none)
+     * @return true if it is a valid quiet move, not given yet
+     */
+    private boolean isPlayable(Move killer, Move other) {
+        return killer != null && !killer.equals(hashMove) && !killer.equals(other) && !tacticalMoves.contains(killer)
+               && board.isValidMove(killer, role);
+    }
+
+    /**
+     * Next move of the current list of a staged node, skipping the moves already given in a previous stage
+     */
+    private Move nextInStage() {
+        Move move;
+        do {
+            move = nextInList();
+        } while (move != null && (move.equals(hashMove)
+                                  || (stage == STAGE_QUIET && (move.equals(killer1) || move.equals(killer2)))));
+        if (move != null) {
+            lastId = asStaged().moveCode(move);
+        }
+        return move;
+    }
+
+    /**
+     * Next move of the current list: by decreasing score (the first one on ties) or in list order
+     */
+    private Move nextInList() {
+        if (given >= moves.size()) {
+            return null;
+        }
+        int index = given++;
+        if (scored) {
+            int bestScore = Integer.MIN_VALUE;
+            for (int i = 0; i < moves.size(); i++) {
+                if (scores[i] > bestScore) {
+                    bestScore = scores[i];
+                    index = i;
+                }
+            }
+            scores[index] = Integer.MIN_VALUE;
+        }
+        lastId = originalIndex(index);
+        return moves.get(index);
+    }
+
+    /**
+     * Index of a move in the list as generated, before the hash move was swapped first
+     */
+    private int originalIndex(int index) {
+        if (swappedIndex == TranspositionTable.NO_MOVE) return index;
+        if (index == 0) return swappedIndex;
+        if (index == swappedIndex) return 0;
+        return index;
+    }
+
+    private int[] scoreBuffer(int size) {
+        if (scores.length < size) {
+            scores = new int[size];
+        }
+        return scores;
+    }
+
+    @SuppressWarnings("unchecked")
+    private IStagedBoard<Move, Role, Board> asStaged() {
+        return (IStagedBoard<Move, Role, Board>) board;
+    }
+}
@@ -0,0 +1,345 @@
+package iialib.games.algs.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of one bestMove call, taken as an immutable snapshot at the end of the search.
+ *
+ * The algorithms count in a SearchStats.Counters object (plain long fields and arrays, no synchronization)
+ * that is reset at the start of each search: counting costs a few increments per node and is always enabled.
+ * Depths are counted in plies from the root (the root itself is not counted as a node).
+ */
+public final class SearchStats {
+
+    // Attributes
+    /** Nodes and leaves visited at each depth (index 0 unused) */
+    private final long[] nodesPerDepth;
+    private final long[] leavesPerDepth;
+
+    /** Nodes whose move loop was cut, and those cut by their first move */
+    private final long betaCutoffs;
+    private final long firstMoveCutoffs;
+
+    /** Nodes searched past the depth limit by the quiescence search (not counted in nodesPerDepth) */
+    private final long quiescenceNodes;
+
+    /** Searches done again with a wider window (principal variation search, aspiration windows) */
+    private final long researches;
+
+    /** Calls to the heuristic and to the move generator */
+    private final long evaluations;
+    private final long moveGenerations;
+
+    /** Duration of the search in nanoseconds */
+    private final long elapsedNanos;
+
+    /** Depth of the last complete iteration */
+    private final int completedDepth;
+
+    /** Nodes of the last two complete iterations (0 when there were fewer) */
+    private final long lastIterationNodes;
+    private final long previousIterationNodes;
+
+    // --------- Constructors ---------
+
+    private SearchStats(Counters counters, long elapsedNanos, int completedDepth) {
+        int depths = counters.maxDepth + 1;
+        this.nodesPerDepth = Arrays.copyOf(counters.nodesPerDepth, depths);
+        this.leavesPerDepth = Arrays.copyOf(counters.leavesPerDepth, depths);
+        this.betaCutoffs = counters.betaCutoffs;
+        this.firstMoveCutoffs = counters.firstMoveCutoffs;
+        this.quiescenceNodes = counters.quiescenceNodes;
+        this.researches = counters.researches;
+        this.evaluations = counters.evaluations;
+        this.moveGenerations = counters.moveGenerations;
+        this.elapsedNanos = elapsedNanos;
+        this.completedDepth = completedDepth;
+        this.lastIterationNodes = counters.lastIterationNodes;
+        this.previousIterationNodes = counters.previousIterationNodes;
+    }
+
+    /*
+     * PUBLIC METHODS ==============
+     */
+
+    /**
+     * Returns the number of nodes visited during the search, leaves included
+     * @return number of nodes
+     */
+    public long getNodes() {
+        long total = 0;
+        for (long nodes : nodesPerDepth) total += nodes;
+        return total;
+    }
+
+    /**
+     * Returns the number of leaves (nodes evaluated by the heuristic without searching deeper)
+     * @return number of leaves
+     */
+    public long getLeaves() {
+        long total = 0;
+        for (long leaves : leavesPerDepth) total += leaves;
+        return total;
+    }
+
+    /**
+     * Returns the number of nodes visited at a depth
+     * @param depth depth from the root (1 for the children of the root)
+     * @return number of nodes (0 if the search did not reach that depth)
+     */
+    public long getNodes(int depth) {
+        return depth >= 0 && depth < nodesPerDepth.length ? nodesPerDepth[depth] : 0L;
+    }
+
+    /**
+     * Returns the number of leaves visited at a depth
+     * @param depth depth from the root (1 for the children of the root)
+     * @return number of leaves (0 if the search did not reach that depth)
+     */
+    public long getLeaves(int depth) {
+        return depth >= 0 && depth < leavesPerDepth.length ? leavesPerDepth[depth] : 0L;
+    }
+
+    /**
+     * Returns the deepest depth reached by the search
+     * @return max depth from the root
+     */
+    public int getMaxDepth() {
+        return nodesPerDepth.length - 1;
+    }
+
+    /**
+     * Returns the depth of the last complete iteration
+     * @return depth fully searched
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of nodes where a move caused a cutoff (always 0 for MiniMax)
+     * @return number of cutoffs
+     */
+    public long getBetaCutoffs() {
+        return betaCutoffs;
+    }
+
+    /**
+     * Returns the number of cutoffs caused by the first move searched
+     * @return number of first move cutoffs
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Returns the share of the cutoffs caused by the first move: close to 1 when the move ordering is good
+     * @return ratio between 0 and 1 (0 without cutoffs)
+     */
+    public double getFirstMoveCutoffRate() {
+        return betaCutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / betaCutoffs;
+    }
+
+    /**
+     * Returns the number of nodes searched by the quiescence search, below the leaves
+     * @return number of quiescence nodes (0 when the quiescence search is disabled)
+     */
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    /**
+     * Returns the share of all the visited nodes spent in the quiescence search
+     * @return ratio between 0 and 1
+     */
+    public double getQuiescenceRate() {
+        long total = getNodes() + quiescenceNodes;
+        return total == 0 ? 0.0 : (double) quiescenceNodes / total;
+    }
+
+    /**
+     * Returns the number of searches done again with a wider window, after a null window or an aspiration
+     * window failed
+     * @return number of re-searches (0 without principal variation search and aspiration windows)
+     */
+    public long getResearches() {
+        return researches;
+    }
+
+    /**
+     * Returns the number of calls to the heuristic
+     * @return number of evaluations
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the number of calls to the move generator
+     * @return number of possibleMoves calls
+     */
+    public long getMoveGenerations() {
+        return moveGenerations;
+    }
+
+    /**
+     * Returns the duration of the search
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the search speed
+     * @return nodes per second (0 if the search took no measurable time)
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos <= 0 ? 0L : (long) (getNodes() * 1e9 / elapsedNanos);
+    }
+
+    /**
+     * Returns the effective branching factor, from the complete iterations only (the iteration abandoned at the
+     * time limit is left out): the ratio of the nodes of the last two iterations, or with a single iteration the
+     * number b such that a uniform tree of the completed depth with branching b would have as many nodes
+     * @return effective branching factor (0 if no depth was completed)
+     */
+    public double getEffectiveBranchingFactor() {
+        if (previousIterationNodes > 0) {
+            return (double) lastIterationNodes / previousIterationNodes;
+        }
+        return completedDepth <= 0 || lastIterationNodes == 0 ? 0.0 : Math.pow(lastIterationNodes, 1.0 / completedDepth);
+    }
+
+    public String toString() {
+        return String.format("nodes=%d leaves=%d qnodes=%d depth=%d evals=%d movegens=%d cutoffs=%d first=%.1f%% "
+                             + "researches=%d time=%.1fms nps=%d ebf=%.2f",
+                             getNodes(), getLeaves(), quiescenceNodes, completedDepth, evaluations, moveGenerations, betaCutoffs,
+                             100 * getFirstMoveCutoffRate(), researches, elapsedNanos / 1e6, getNodesPerSecond(),
+                             getEffectiveBranchingFactor());
+    }
+
+    /*
+     * COUNTERS ==============
+     */
+
+    /**
+     * Counters updated by a search (by a single thread: parallel workers have their own and are merged with add)
+     */
+    static final class Counters {
+        private long[] nodesPerDepth = new long[16];
+        private long[] leavesPerDepth = new long[16];
+        private int maxDepth;
+        private long nodes;
+        private long betaCutoffs;
+        private long firstMoveCutoffs;
+        private long quiescenceNodes;
+        private long researches;
+        private long evaluations;
+        private long moveGenerations;
+        private long completedNodes; // Nodes of all the complete iterations
+        private long lastIterationNodes;
+        private long previousIterationNodes;
+
+        void reset() {
+            Arrays.fill(nodesPerDepth, 0L);
+            Arrays.fill(leavesPerDepth, 0L);
+            maxDepth = 0;
+            nodes = 0;
+            betaCutoffs = 0;
+            firstMoveCutoffs = 0;
+            quiescenceNodes = 0;
+            researches = 0;
+            evaluations = 0;
+            moveGenerations = 0;
+            completedNodes = 0;
+            lastIterationNodes = 0;
+            previousIterationNodes = 0;
+        }
+
+        /** Marks the end of a complete iteration: the nodes counted since the previous one are its nodes */
+        void iterationCompleted() {
+            previousIterationNodes = lastIterationNodes;
+            lastIterationNodes = nodes - completedNodes;
+            completedNodes = nodes;
+        }
+
+        /** Counts a node and returns the total, used to check the clock every few nodes */
+        long node(int depth) {
+            if (depth >= nodesPerDepth.length) {
+                grow(depth);
+            }
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+            nodesPerDepth[depth]++;
+            return ++nodes;
+        }
+
+        void leaf(int depth) {
+            leavesPerDepth[depth]++;
+        }
+
+        void cutoff(int moveIndex) {
+            betaCutoffs++;
+            if (moveIndex == 0) {
+                firstMoveCutoffs++;
+            }
+        }
+
+        void quiescenceNode() {
+            quiescenceNodes++;
+        }
+
+        void research() {
+            researches++;
+        }
+
+        void evaluation() {
+            evaluations++;
+        }
+
+        void moveGeneration() {
+            moveGenerations++;
+        }
+
+        long nodes() {
+            return nodes;
+        }
+
+        long leaves() {
+            long total = 0;
+            for (long leaves : leavesPerDepth) total += leaves;
+            return total;
+        }
+
+        /** Adds the counts of another search (a parallel worker) */
+        void add(Counters other) {
+            if (other.maxDepth >= nodesPerDepth.length) {
+                grow(other.maxDepth);
+            }
+            for (int depth = 0; depth <= other.maxDepth; depth++) {
+                nodesPerDepth[depth] += other.nodesPerDepth[depth];
+                leavesPerDepth[depth] += other.leavesPerDepth[depth];
+            }
+            maxDepth = Math.max(maxDepth, other.maxDepth);
+            nodes += other.nodes;
+            betaCutoffs += other.betaCutoffs;
+            firstMoveCutoffs += other.firstMoveCutoffs;
+            quiescenceNodes += other.quiescenceNodes;
+            researches += other.researches;
+            evaluations += other.evaluations;
+            moveGenerations += other.moveGenerations;
+        }
+
+        SearchStats snapshot(long elapsedNanos, int completedDepth) {
+            return new SearchStats(this, elapsedNanos, completedDepth);
+        }
+
+        private void grow(int depth) {
+            int size = Math.max(depth + 1, 2 * nodesPerDepth.length);
+            nodesPerDepth = Arrays.copyOf(nodesPerDepth, size);
+            leavesPerDepth = Arrays.copyOf(leavesPerDepth, size);
+        }
+    }
+}
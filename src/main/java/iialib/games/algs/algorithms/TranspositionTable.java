@@ -0,0 +1,174 @@
+package iialib.games.algs.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Transposition table for the search algorithms, stored in a single primitive long[].
+ *
+ * Each entry is a pair of longs (check, data) where data packs the score, the remaining depth,
+ * the bound type, the id of the best move and the search generation, and check = key ^ data.
+ * An entry is only accepted when check ^ data gives back the probed key, so an entry torn by
+ * concurrent writers is simply seen as a miss : the table needs no lock.
+ *
+ * Entries are grouped in buckets of two slots : the first one keeps the deepest result
+ * (depth-preferred, unless it comes from an older search), the second one is always replaced.
+ */
+public class TranspositionTable {
+
+    // Constants
+    /** Bound types (0 is reserved for "no entry") */
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    /** Move index stored when no best move is known */
+    public static final int NO_MOVE = -1;
+
+    /** Longs per entry (check + data) and per bucket (two entries) */
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+
+    // Layout of the data word
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int MOVE_SHIFT = 42;
+    private static final int GENERATION_SHIFT = 58;
+    private static final long MOVE_MASK = 0xFFFFL;
+    private static final long GENERATION_MASK = 0x3FL;
+
+    // Attributes
+    /** Buckets, one after the other */
+    private final long[] table;
+
+    /** Mask applied to a key to get its bucket number (the number of buckets is a power of two) */
+    private final long bucketMask;
+
+    /** Generation of the current search, used to replace old deep entries (written by the thread starting the
+     *  search before the searchers run, read by all of them) */
+    private volatile int generation;
+
+    // --------- Constructors ---------
+
+    /**
+     * @param sizeMb size of the table in megabytes (rounded down to a power of two buckets)
+     */
+    public TranspositionTable(int sizeMb) {
+        long buckets = Math.max(1L, ((long) sizeMb << 20) / (BUCKET_LONGS * Long.BYTES));
+        buckets = Long.highestOneBit(Math.min(buckets, Integer.MAX_VALUE / BUCKET_LONGS));
+        this.table = new long[(int) (buckets * BUCKET_LONGS)];
+        this.bucketMask = buckets - 1;
+    }
+
+    /*
+     * PUBLIC METHODS ==============
+     */
+
+    /**
+     * Looks for the entry of a position
+     * @param key position key
+     * @return the packed data of the entry, or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        int index = bucketIndex(key);
+        for (int slot = 0; slot < BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = table[index + slot + 1];
+            if ((table[index + slot] ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores the result of a search
+     * @param key position key
+     * @param score value of the position
+     * @param depth remaining depth that was searched below the position
+     * @param bound BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     * @param moveIndex index of the best move in the move list (or its move code, see IStagedBoard), or NO_MOVE
+     */
+    public void store(long key, int score, int depth, int bound, int moveIndex) {
+        long data = (score & 0xFFFFFFFFL)
+                | ((long) Math.min(Math.max(depth, 0), 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((moveIndex & MOVE_MASK) << MOVE_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+
+        int index = bucketIndex(key);
+        long deepData = table[index + 1];
+        boolean sameKey = (table[index] ^ deepData) == key;
+        if (deepData == 0 || sameKey || depth >= depthOf(deepData) || generationOf(deepData) != generation) {
+            if (sameKey && moveIndex == NO_MOVE) { // Keep the best move already known for this position
+                data = (data & ~(MOVE_MASK << MOVE_SHIFT)) | (deepData & (MOVE_MASK << MOVE_SHIFT));
+            }
+            table[index] = key ^ data;
+            table[index + 1] = data;
+        } else {
+            table[index + ENTRY_LONGS] = key ^ data;
+            table[index + ENTRY_LONGS + 1] = data;
+        }
+    }
+
+    /**
+     * Starts a new search : entries of previous searches are kept but may now be replaced
+     */
+    public void newSearch() {
+        generation = (int) ((generation + 1) & GENERATION_MASK);
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    /**
+     * @return the capacity of the table, in entries
+     */
+    public int capacity() {
+        return table.length / ENTRY_LONGS;
+    }
+
+    /*
+     * PUBLIC STATIC METHODS - DATA DECODING ==============
+     */
+
+    public static int scoreOf(long data) {
+        return (int) data;
+    }
+
+    public static int depthOf(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int boundOf(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    /**
+     * @return the index of the best move, or NO_MOVE
+     */
+    public static int moveOf(long data) {
+        int move = (int) ((data >>> MOVE_SHIFT) & MOVE_MASK);
+        return move == MOVE_MASK ? NO_MOVE : move;
+    }
+
+    /*
+     * PRIVATE METHODS ===============
+     */
+
+    private static int generationOf(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & GENERATION_MASK);
+    }
+
+    private int bucketIndex(long key) {
+        // The low bits of the key select the bucket, the whole key is verified in the entry
+        return (int) ((key ^ (key >>> 32)) & bucketMask) * BUCKET_LONGS;
+    }
+
+    public String toString() {
+        return "TranspositionTable(" + capacity() + " entries)";
+    }
+}
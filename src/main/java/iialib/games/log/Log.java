@@ -0,0 +1,168 @@
+package iialib.games.log;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Leveled logging facade used by the algorithms and the games instead of System.out.
+ *
+ * Messages below the current level are discarded by a single comparison: constant messages cost nothing
+ * when disabled, and messages built by concatenation should be guarded with isEnabled (or passed as a
+ * Supplier) so that the string is not even built.
+ *
+ * The level is read from the system property iialib.log.level (DEBUG, INFO, WARN, ERROR or OFF, in any case,
+ * INFO by default or when the value is unknown). Messages go to the console synchronously, unless iialib.log.async=true or useAsync() is called,
+ * in which case they are queued in a RingBufferSink written by a background thread.
+ */
+public final class Log {
+
+    /** Levels, from the most verbose to the least verbose */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    /** Destination of the enabled messages */
+    public interface Sink {
+        /**
+         * Writes one message
+         * @param level level of the message (never OFF)
+         * @param message the message, without end of line
+         */
+        void write(Level level, String message);
+
+        /**
+         * Waits until every message written so far has reached its destination
+         */
+        void flush();
+    }
+
+    /** Writes WARN and ERROR messages on System.err and the others on System.out, in the calling thread */
+    public static final Sink CONSOLE = new Sink() {
+        @Override
+        public void write(Level level, String message) {
+            (level.compareTo(Level.WARN) >= 0 ? System.err : System.out).println(message);
+        }
+
+        @Override
+        public void flush() {
+            System.out.flush();
+            System.err.flush();
+        }
+    };
+
+    // Attributes
+    /** Ordinal of the lowest enabled level */
+    private static volatile int threshold = levelProperty().ordinal();
+
+    /** Current destination of the messages */
+    private static volatile Sink sink = Boolean.getBoolean("iialib.log.async") ? new RingBufferSink() : CONSOLE;
+
+    private Log() {
+    }
+
+    /**
+     * Reads the level from the system property iialib.log.level
+     * @return the level of the property, INFO if it is missing or unknown
+     */
+    private static Level levelProperty() {
+        String value = System.getProperty("iialib.log.level", "INFO");
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown iialib.log.level '" + value + "', using INFO");
+            return Level.INFO;
+        }
+    }
+
+    /*
+     * CONFIGURATION ==============
+     */
+
+    public static void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    public static Level getLevel() {
+        return Level.values()[threshold];
+    }
+
+    /**
+     * Replaces the destination of the messages (the previous one is flushed first)
+     * @param newSink the new destination
+     */
+    public static void setSink(Sink newSink) {
+        Sink previous = sink;
+        sink = newSink;
+        previous.flush();
+    }
+
+    /**
+     * Sends the messages to a new RingBufferSink, so that the callers never wait for the console
+     * (meant for batch programs: self-play, opening generation, benchmarks)
+     */
+    public static void useAsync() {
+        if (!(sink instanceof RingBufferSink)) {
+            setSink(new RingBufferSink());
+        }
+    }
+
+    /**
+     * Waits until every message logged so far has been written
+     */
+    public static void flush() {
+        sink.flush();
+    }
+
+    /*
+     * LOGGING ==============
+     */
+
+    /**
+     * @param level a level
+     * @return true if the messages of this level are written
+     */
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public static void log(Level level, String message) {
+        if (level.ordinal() >= threshold && level != Level.OFF) {
+            sink.write(level, message);
+        }
+    }
+
+    /**
+     * Logs a message that is only built if the level is enabled
+     * @param level level of the message
+     * @param message builds the message
+     */
+    public static void log(Level level, Supplier<String> message) {
+        if (level.ordinal() >= threshold && level != Level.OFF) {
+            sink.write(level, message.get());
+        }
+    }
+
+    public static void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    public static void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    public static void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    public static void error(String message) {
+        log(Level.ERROR, message);
+    }
+}
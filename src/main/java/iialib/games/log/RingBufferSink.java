@@ -0,0 +1,160 @@
+package iialib.games.log;
+
+import java.io.PrintStream;
+
+/**
+ * Asynchronous sink: the messages are stored in a fixed size ring buffer and written to the console by a
+ * background daemon thread, one print per batch of consecutive messages of the same stream instead of one
+ * synchronized println per message.
+ *
+ * A producer only waits when the buffer is full (no message is lost unless it is interrupted meanwhile).
+ * The messages still queued when the JVM exits are written by a shutdown hook.
+ */
+public class RingBufferSink implements Log.Sink {
+
+    // Constants
+    /** Default capacity of the buffer, in messages */
+    private final static int DEFAULT_CAPACITY = 4096;
+
+    // Attributes
+    /** Messages and their levels, slot (sequence & mask) */
+    private final String[] messages;
+    private final Log.Level[] levels;
+    private final int mask;
+
+    /** Guards the sequence numbers below */
+    private final Object lock = new Object();
+
+    /** Sequence number of the next message to write to the console */
+    private long head;
+
+    /** Sequence number of the next message to store */
+    private long tail;
+
+    /** Number of messages already printed (flush waits for it to reach tail) */
+    private long written;
+
+    // --------- Constructors ---------
+
+    public RingBufferSink() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity minimum number of messages the buffer can hold (rounded up to a power of 2)
+     */
+    public RingBufferSink(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.messages = new String[size];
+        this.levels = new Log.Level[size];
+        this.mask = size - 1;
+
+        Thread writer = new Thread(this::drain, "iialib-log");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "iialib-log-flush"));
+    }
+
+    /*
+     * SINK METHODS =============
+     */
+
+    @Override
+    public void write(Log.Level level, String message) {
+        synchronized (lock) {
+            while (tail - head == messages.length) {
+                if (!awaitQuietly()) {
+                    return; // Interrupted while the buffer is full: the message is dropped
+                }
+            }
+            int slot = (int) (tail & mask);
+            messages[slot] = message;
+            levels[slot] = level;
+            if (tail++ == head) {
+                lock.notifyAll(); // The writer thread was waiting for a message
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            long target = tail;
+            while (written < target) {
+                if (!awaitQuietly()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /*
+     * PRIVATE METHODS ===============
+     */
+
+    /**
+     * Body of the writer thread: takes all the queued messages at once and prints them outside the lock
+     */
+    private void drain() {
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            String[] batch;
+            Log.Level[] batchLevels;
+            long end;
+            synchronized (lock) {
+                while (head == tail) {
+                    awaitQuietly();
+                }
+                end = tail;
+                int count = (int) (end - head);
+                batch = new String[count];
+                batchLevels = new Log.Level[count];
+                for (int i = 0; i < count; i++) {
+                    int slot = (int) ((head + i) & mask);
+                    batch[i] = messages[slot];
+                    batchLevels[i] = levels[slot];
+                    messages[slot] = null;
+                }
+                head = end;
+                lock.notifyAll(); // Room for the waiting producers
+            }
+
+            // Consecutive messages going to the same stream are printed at once
+            PrintStream current = null;
+            for (int i = 0; i < batch.length; i++) {
+                PrintStream stream = batchLevels[i].compareTo(Log.Level.WARN) >= 0 ? System.err : System.out;
+                if (stream != current && current != null) {
+                    current.print(text);
+                    current.flush();
+                    text.setLength(0);
+                }
+                current = stream;
+                text.append(batch[i]).append(System.lineSeparator());
+            }
+            if (current != null) {
+                current.print(text);
+                current.flush();
+                text.setLength(0);
+            }
+
+            synchronized (lock) {
+                written = end;
+                lock.notifyAll(); // Wakes the flushing threads
+            }
+        }
+    }
+
+    /**
+     * Waits on the lock, keeping the interrupt status of the thread
+     * @return false if the thread was interrupted
+     */
+    private boolean awaitQuietly() {
+        try {
+            lock.wait();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package iialib.games.model;
+
+/**
+ * Optional extension for boards that maintain a position key (e.g. a Zobrist key).
+ *
+ * Two boards representing the same position must return the same key. Search algorithms use it to
+ * recognise positions already searched (transposition tables).
+ */
+public interface IHashableBoard {
+
+	/**
+	 * @return a 64 bits key identifying the position
+	 */
+	long hashKey();
+
+}
@@ -0,0 +1,39 @@
+package iialib.games.model;
+
+import java.util.ArrayList;
+
+/**
+ * Optional extension of ITacticalBoard for boards that can generate their moves in stages.
+ *
+ * Search algorithms check for this interface : when it is implemented they can search the best move of a
+ * previous search and the tactical moves before generating the quiet moves, which are only generated when
+ * none of the first moves caused a cutoff.
+ *
+ * @param <Move> Class implementing the moves for the game
+ * @param <Role> Class implementing the roles for the game
+ * @param <Board> Class implementing the boards for the game
+ */
+public interface IStagedBoard<Move extends IMove, Role extends IRole, Board extends IBoard<Move,Role,Board>> extends ITacticalBoard<Move,Role,Board> {
+
+	/**
+	 * returns the moves of the player having the playerRole that are not tactical moves
+	 * @param playerRole
+	 * @return possibleMoves without the tacticalMoves
+	 */
+	ArrayList<Move> quietMoves(Role playerRole);
+
+	/**
+	 * returns a code identifying move in any position, used to store it (e.g. in a transposition table)
+	 * @param move
+	 * @return a code between 0 and 65534, or -1 if the move cannot be coded
+	 */
+	int moveCode(Move move);
+
+	/**
+	 * returns the move of a code returned by moveCode (it may not be valid in this position)
+	 * @param code
+	 * @return the move, or null if the code is unknown
+	 */
+	Move moveOfCode(int code);
+
+}
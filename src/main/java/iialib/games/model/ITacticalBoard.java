@@ -0,0 +1,33 @@
+package iialib.games.model;
+
+import java.util.ArrayList;
+
+/**
+ * Optional extension of IBoard for boards that can tell the tactical moves (captures) apart from the others.
+ *
+ * Search algorithms check for this interface : when it is implemented they can go on searching past their
+ * depth limit with the tactical moves only (quiescence search), so that the heuristic is only called on
+ * quiet positions.
+ *
+ * @param <Move> Class implementing the moves for the game
+ * @param <Role> Class implementing the roles for the game
+ * @param <Board> Class implementing the boards for the game
+ */
+public interface ITacticalBoard<Move extends IMove, Role extends IRole, Board extends IBoard<Move,Role,Board>> extends IBoard<Move,Role,Board> {
+
+	/**
+	 * returns the tactical moves of the player having the playerRole (a subset of possibleMoves)
+	 * @param playerRole
+	 * @return the moves that must be searched before the position can be evaluated
+	 */
+	ArrayList<Move> tacticalMoves(Role playerRole);
+
+	/**
+	 * checks if the opponent of the player having the playerRole threatens a tactical move : the position is
+	 * then not quiet even if the player has no tactical move
+	 * @param playerRole
+	 * @return yes if the player must answer a threat
+	 */
+	boolean isThreatened(Role playerRole);
+
+}
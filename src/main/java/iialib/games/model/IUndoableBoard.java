@@ -0,0 +1,33 @@
+package iialib.games.model;
+
+/**
+ * Optional extension of IBoard for boards that can be modified in place.
+ *
+ * Search algorithms check for this interface : when it is implemented they copy the root board once
+ * and then use makeMove / unmakeMove on that single copy instead of creating a successor board
+ * with play() at every node.
+ *
+ * @param <Move> Class implementing the moves for the game
+ * @param <Role> Class implementing the roles for the game
+ * @param <Board> Class implementing the boards for the game
+ */
+public interface IUndoableBoard<Move extends IMove, Role extends IRole, Board extends IBoard<Move,Role,Board>> extends IBoard<Move,Role,Board> {
+
+	/**
+	 * plays move on this board (in place), remembering what is needed to undo it
+	 * @param move
+	 * @param playerRole
+	 */
+	void makeMove(Move move, Role playerRole);
+
+	/**
+	 * undoes the last move played with makeMove
+	 */
+	void unmakeMove();
+
+	/**
+	 * @return an independent copy of this board, with an empty undo history
+	 */
+	Board copy();
+
+}